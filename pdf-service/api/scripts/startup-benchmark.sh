@@ -0,0 +1,99 @@
+#!/usr/bin/env bash
+#
+# Compara o tempo de inicialização do jar atual com o perfil fast-startup
+# (Spring AOT + CDS) e, opcionalmente, com restore CRaC.
+#
+# Uso (a partir de pdf-service/api):
+#   scripts/startup-benchmark.sh [execuções]
+#
+# Variáveis:
+#   MVN=./mvnw                comando Maven (padrão: mvn)
+#   SKIP_BUILD=1              reaproveita os artefatos de uma execução anterior
+#   CRAC_JAVA=/jdk/bin/java   JDK com CRaC; inclui o modo checkpoint/restore
+#
+# Para cada modo mede, do lançamento da JVM:
+#   started — log "Started ApiApplication" (contexto pronto)
+#   ready   — fim do aquecimento (PdfWarmup), quando o readiness passa a aceitar tráfego
+set -euo pipefail
+
+RUNS="${1:-5}"
+cd "$(dirname "$0")/.."
+
+OUT=target/startup-benchmark
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+MVN="${MVN:-mvn}"
+APP_ARGS=(--server.port=0)
+
+if [[ "${SKIP_BUILD:-0}" != "1" ]]; then
+    rm -rf "$OUT"
+    mkdir -p "$OUT/baseline"
+
+    echo ">> build padrão"
+    $MVN -B -q -DskipTests package
+    cp target/api-0.0.1-SNAPSHOT.jar "$OUT/baseline/api.jar"
+
+    echo ">> build -Pfast-startup${CRAC_JAVA:+,crac}"
+    $MVN -B -q -DskipTests -Pfast-startup${CRAC_JAVA:+,crac} package
+fi
+
+now_ms() { date +%s%3N; }
+
+# Lança o comando e espera pelas linhas de log; imprime "started ready" em ms.
+measure() {
+    local log="$OUT/run.log"
+    local start started="" ready=""
+    start=$(now_ms)
+    "$@" > "$log" 2>&1 &
+    local pid=$!
+
+    while kill -0 "$pid" 2>/dev/null; do
+        if [[ -z "$started" ]] && grep -aq "Started ApiApplication" "$log"; then
+            started=$(( $(now_ms) - start ))
+        fi
+        if [[ -n "$started" ]] && grep -aqE "Aquecimento (conclu|interrompido)" "$log"; then
+            ready=$(( $(now_ms) - start ))
+            break
+        fi
+        sleep 0.02
+    done
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+    if [[ -z "$ready" ]]; then
+        echo "falha ao iniciar — veja $log" >&2
+        exit 1
+    fi
+    echo "$started $ready"
+}
+
+median() { sort -n | awk '{a[NR]=$1} END {print (NR % 2) ? a[(NR+1)/2] : int((a[NR/2] + a[NR/2+1]) / 2)}'; }
+
+bench() {
+    local name="$1"; shift
+    local s=() r=()
+    for ((i = 1; i <= RUNS; i++)); do
+        read -r a b < <(measure "$@")
+        s+=("$a"); r+=("$b")
+    done
+    printf "%-22s started %6s ms   ready %6s ms   (mediana de %d)\n" "$name" \
+        "$(printf '%s\n' "${s[@]}" | median)" "$(printf '%s\n' "${r[@]}" | median)" "$RUNS"
+}
+
+bench "jar atual" \
+    "$JAVA" -jar "$OUT/baseline/api.jar" "${APP_ARGS[@]}"
+
+bench "AOT" \
+    "$JAVA" -Dspring.aot.enabled=true -jar target/api-0.0.1-SNAPSHOT.jar "${APP_ARGS[@]}"
+
+bench "AOT + CDS" \
+    "$JAVA" -XX:SharedArchiveFile=target/api.jsa -Dspring.aot.enabled=true \
+        -jar target/api-0.0.1-SNAPSHOT.jar "${APP_ARGS[@]}"
+
+if [[ -n "${CRAC_JAVA:-}" ]]; then
+    rm -rf "$OUT/crac"
+    # A JVM encerra sozinha depois de gravar o checkpoint
+    "$CRAC_JAVA" -XX:CRaCCheckpointTo="$OUT/crac" -Dspring.context.checkpoint=onRefresh \
+        -Dspring.aot.enabled=true -jar target/api-0.0.1-SNAPSHOT.jar "${APP_ARGS[@]}" \
+        > "$OUT/checkpoint.log" 2>&1 || true
+    bench "CRaC restore" "$CRAC_JAVA" -XX:CRaCRestoreFrom="$OUT/crac"
+fi
@@ -0,0 +1,157 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.ApiApplication;
+import com.pdfController.api.Service.PdfService.PrepareResponse;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * PDFs sintéticos e contexto Spring compartilhados pelos benchmarks.
+ *
+ * Os arquivos gerados ficam em target/jmh-fixtures (ou -Djmh.fixtures) e
+ * são reaproveitados entre execuções: gerar um PDF de 50 MB com 9
+ * assinaturas custa mais que o próprio benchmark.
+ */
+final class BenchmarkFixtures {
+
+    /** Tamanhos de assinatura ML-DSA-44, ML-DSA-65 e ML-DSA-87 (FIPS 204). */
+    static final int ML_DSA_44 = 2420;
+    static final int ML_DSA_65 = 3309;
+    static final int ML_DSA_87 = 4627;
+
+    /** Chave pública ML-DSA-65, só para o tamanho do campo PQC_PublicKey_N. */
+    private static final int PUBLIC_KEY_BYTES = 1952;
+
+    /** Conteúdo por página: comentários hex, não comprimidos, ~256 KB. */
+    private static final int PAGE_PAYLOAD_BYTES = 256 * 1024;
+
+    private static final Path DIRECTORY =
+            Paths.get(System.getProperty("jmh.fixtures", "target/jmh-fixtures"));
+
+    private BenchmarkFixtures() {}
+
+    static ConfigurableApplicationContext startContext() {
+        return new SpringApplicationBuilder(ApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties("pdf.warmup.enabled=false",
+                            "pdf.session.dir=" + DIRECTORY.resolve("sessions").toAbsolutePath())
+                .run();
+    }
+
+    /**
+     * PDF com aproximadamente {@code sizeKb} KB e {@code signatures}
+     * assinaturas já aplicadas (preparar + finalizar).
+     */
+    static Path signedPdf(PdfService pdfService, int sizeKb, int signatures) throws Exception {
+        Path target = DIRECTORY.resolve("doc_" + sizeKb + "kb_" + signatures + "sig.pdf");
+        if (Files.isRegularFile(target)) return target;
+
+        if (signatures == 0) {
+            generatePdf(target, sizeKb * 1024L);
+            return target;
+        }
+
+        Path previous = signedPdf(pdfService, sizeKb, signatures - 1);
+        Path work  = Files.createTempDirectory(DIRECTORY, "work_");
+        Path input = work.resolve("input.pdf");
+        Files.copy(previous, input);
+
+        SignatureMetadata metadata = metadata(signatures);
+        PrepareResponse prepared = pdfService.prepararPdf(input.toString(), metadata);
+        String signed = pdfService.finalizarPdf(prepared.getPreparedFilePath(),
+                signatureBase64(ML_DSA_65), metadata);
+
+        Files.move(Paths.get(signed), target, StandardCopyOption.REPLACE_EXISTING);
+        deleteDirectory(work);
+        return target;
+    }
+
+    /**
+     * Cópia de trabalho do fixture, para benchmarks que gravam arquivos
+     * derivados (_prepared.pdf, _signed.pdf) ao lado da entrada.
+     */
+    static Path workingCopy(Path fixture, String name) throws IOException {
+        Path dir = Files.createDirectories(DIRECTORY.resolve("work_" + name));
+        Path copy = dir.resolve(fixture.getFileName());
+        Files.copy(fixture, copy, StandardCopyOption.REPLACE_EXISTING);
+        return copy;
+    }
+
+    static SignatureMetadata metadata(int index) {
+        SignatureMetadata metadata = new SignatureMetadata();
+        metadata.setSignerName("Assinante de Benchmark " + index);
+        metadata.setReason("Aprovação");
+        metadata.setLocation("Recife/PE");
+        metadata.setPublicKey(Base64.getEncoder().encodeToString(randomBytes(PUBLIC_KEY_BYTES, index)));
+        return metadata;
+    }
+
+    /** Esquema ML-DSA cuja assinatura tem {@code signatureBytes} bytes. */
+    static String mlDsaAlgorithm(int signatureBytes) {
+        return switch (signatureBytes) {
+            case ML_DSA_44 -> SignatureScheme.ML_DSA_44.getDisplayName();
+            case ML_DSA_65 -> SignatureScheme.ML_DSA_65.getDisplayName();
+            case ML_DSA_87 -> SignatureScheme.ML_DSA_87.getDisplayName();
+            default -> throw new IllegalArgumentException("Tamanho de assinatura ML-DSA desconhecido: " + signatureBytes);
+        };
+    }
+
+    static String signatureBase64(int signatureBytes) {
+        return Base64.getEncoder().encodeToString(randomBytes(signatureBytes, signatureBytes));
+    }
+
+    static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator)
+                Files.deleteIfExists(p);
+        }
+    }
+
+    private static void generatePdf(Path target, long sizeBytes) throws IOException {
+        Files.createDirectories(target.getParent());
+        Random random = new Random(sizeBytes);
+        HexFormat hex = HexFormat.of();
+
+        try (PDDocument doc = new PDDocument()) {
+            long written = 0;
+            do {
+                PDPage page = new PDPage();
+                doc.addPage(page);
+
+                int payload = (int) Math.min(PAGE_PAYLOAD_BYTES, Math.max(1024, sizeBytes - written));
+                byte[] line = new byte[64];
+                try (PDPageContentStream cs = new PDPageContentStream(
+                        doc, page, PDPageContentStream.AppendMode.OVERWRITE, false)) {
+                    for (int n = 0; n < payload; n += 2 * line.length + 3) {
+                        random.nextBytes(line);
+                        cs.addComment(hex.formatHex(line));
+                    }
+                }
+                written += payload;
+            } while (written < sizeBytes);
+
+            doc.save(target.toFile());
+        }
+    }
+
+    private static byte[] randomBytes(int length, long seed) {
+        byte[] bytes = new byte[length];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
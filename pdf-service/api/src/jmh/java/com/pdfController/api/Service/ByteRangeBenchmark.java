@@ -0,0 +1,51 @@
+package com.pdfController.api.Service;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * extractLastByteRangeFromPdf: varredura a partir do fim, no arquivo
+ * (caminho usado por finalizar) e em memória (caminho usado por preparar).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ByteRangeBenchmark {
+
+    @Param({"100", "1024", "10240", "51200"})
+    int sizeKb;
+
+    @Param({"1", "5", "10"})
+    int signatures;
+
+    private PdfService pdfService;
+    private Path       path;
+    private byte[]     bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        try (ConfigurableApplicationContext context = BenchmarkFixtures.startContext()) {
+            path = BenchmarkFixtures.signedPdf(context.getBean(PdfService.class), sizeKb, signatures);
+        }
+        // Só o locator é exercitado: não precisa das dependências do contexto
+        pdfService = new PdfService();
+        bytes      = Files.readAllBytes(path);
+    }
+
+    @Benchmark
+    public ByteRangeLocator.Location fromFile() throws Exception {
+        return pdfService.extractLastByteRangeFromPdf(path);
+    }
+
+    @Benchmark
+    public ByteRangeLocator.Location fromBytes() {
+        return pdfService.extractLastByteRangeFromPdf(bytes);
+    }
+}
@@ -0,0 +1,75 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.PrepareResponse;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import com.pdfController.api.Service.PreparedSessionStore.Session;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * finalizarPdf: cópia do preparado e patch do /Contents com a assinatura
+ * ML-DSA, com a janela reservada para o esquema de cada tamanho de
+ * assinatura. A sessão consumida pela finalização é regravada antes de cada
+ * invocação, fora da medição.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FinalizeBenchmark {
+
+    @Param({"100", "1024", "10240", "51200"})
+    int sizeKb;
+
+    @Param({"0", "5", "9"})
+    int existingSignatures;
+
+    @Param({"" + BenchmarkFixtures.ML_DSA_44, "" + BenchmarkFixtures.ML_DSA_65, "" + BenchmarkFixtures.ML_DSA_87})
+    int signatureBytes;
+
+    private ConfigurableApplicationContext context;
+    private PdfService           pdfService;
+    private PreparedSessionStore sessionStore;
+    private SignatureMetadata    metadata;
+    private String               preparedPath;
+    private String               signatureBase64;
+    private Session              session;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context      = BenchmarkFixtures.startContext();
+        pdfService   = context.getBean(PdfService.class);
+        sessionStore = context.getBean(PreparedSessionStore.class);
+        metadata     = BenchmarkFixtures.metadata(existingSignatures + 1);
+        // Janela /Contents do tamanho da assinatura medida, não a do esquema padrão
+        metadata.setAlgorithm(BenchmarkFixtures.mlDsaAlgorithm(signatureBytes));
+
+        Path fixture = BenchmarkFixtures.signedPdf(pdfService, sizeKb, existingSignatures);
+        Path input   = BenchmarkFixtures.workingCopy(fixture, "finalize");
+
+        PrepareResponse prepared = pdfService.prepararPdf(input.toString(), metadata);
+        preparedPath    = prepared.getPreparedFilePath();
+        session         = sessionStore.find(preparedPath).orElseThrow();
+        signatureBase64 = BenchmarkFixtures.signatureBase64(signatureBytes);
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreSession() throws Exception {
+        sessionStore.save(session);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String finalizarPdf() throws Exception {
+        return pdfService.finalizarPdf(preparedPath, signatureBase64, metadata);
+    }
+}
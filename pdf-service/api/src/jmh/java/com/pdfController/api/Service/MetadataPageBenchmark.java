@@ -0,0 +1,49 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderização da página de metadados da 1ª assinatura (template
+ * estático + bloco do assinante) sobre um documento de uma página,
+ * incluindo a serialização do resultado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MetadataPageBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private PdfService        pdfService;
+    private SignatureMetadata metadata;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context    = BenchmarkFixtures.startContext();
+        pdfService = context.getBean(PdfService.class);
+        metadata   = BenchmarkFixtures.metadata(1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void renderMetadataPage() throws Exception {
+        try (PDDocument doc = new PDDocument()) {
+            doc.addPage(new PDPage());
+            pdfService.addFullMetadataPageWithAllBlocks(doc, metadata, 1);
+            doc.save(OutputStream.nullOutputStream());
+        }
+    }
+}
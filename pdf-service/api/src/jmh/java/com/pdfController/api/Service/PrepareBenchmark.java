@@ -0,0 +1,53 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.PrepareResponse;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * prepararPdf: página de metadados (1ª assinatura) ou bloco incremental,
+ * placeholder do DSS e hash do ByteRange.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PrepareBenchmark {
+
+    @Param({"100", "1024", "10240", "51200"})
+    int sizeKb;
+
+    @Param({"0", "1", "5", "9"})
+    int existingSignatures;
+
+    private ConfigurableApplicationContext context;
+    private PdfService        pdfService;
+    private SignatureMetadata metadata;
+    private String            input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context    = BenchmarkFixtures.startContext();
+        pdfService = context.getBean(PdfService.class);
+        metadata   = BenchmarkFixtures.metadata(existingSignatures + 1);
+
+        Path fixture = BenchmarkFixtures.signedPdf(pdfService, sizeKb, existingSignatures);
+        input = BenchmarkFixtures.workingCopy(fixture, "prepare").toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PrepareResponse prepararPdf() throws Exception {
+        return pdfService.prepararPdf(input, metadata);
+    }
+}
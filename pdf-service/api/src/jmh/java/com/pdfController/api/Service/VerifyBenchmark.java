@@ -0,0 +1,48 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.SignatureInfo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * verificarAssinaturas sem o VerificationCache do controller: parse do
+ * PDF, digest de todos os ByteRanges e leitura das chaves públicas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VerifyBenchmark {
+
+    @Param({"100", "1024", "10240", "51200"})
+    int sizeKb;
+
+    @Param({"1", "5", "10"})
+    int signatures;
+
+    private ConfigurableApplicationContext context;
+    private PdfService pdfService;
+    private String     path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context    = BenchmarkFixtures.startContext();
+        pdfService = context.getBean(PdfService.class);
+        path       = BenchmarkFixtures.signedPdf(pdfService, sizeKb, signatures).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SignatureInfo> verificarAssinaturas() throws Exception {
+        return pdfService.verificarAssinaturas(path);
+    }
+}
@@ -1,22 +1,50 @@
 package com.pdfController.api.Controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdfController.api.Service.PdfAdmissionControl;
+import com.pdfController.api.Service.PdfAdmissionControl.OverloadedException;
+import com.pdfController.api.Service.PdfBatchService;
+import com.pdfController.api.Service.PdfDelta;
+import com.pdfController.api.Service.PdfJobService;
 import com.pdfController.api.Service.PdfService;
+import com.pdfController.api.Service.PdfStreamService;
+import com.pdfController.api.Service.PqcSignatureVerifier;
+import com.pdfController.api.Service.PublicKeyRegistry;
+import com.pdfController.api.Service.RevisionStore;
+import com.pdfController.api.Service.PdfService.ConflictException;
 import com.pdfController.api.Service.PdfService.SignatureMetadata;
 import com.pdfController.api.Service.PdfService.ValidationException;
+import com.pdfController.api.Service.VerificationCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 @RestController
@@ -28,6 +56,40 @@ public class PdfManagerController {
     @Autowired
     private PdfService pdfService;
 
+    @Autowired
+    private PdfBatchService pdfBatchService;
+
+    @Autowired
+    private VerificationCache verificationCache;
+
+    @Autowired
+    private PdfStreamService pdfStreamService;
+
+    @Autowired
+    private PdfAdmissionControl admission;
+
+    @Autowired
+    private PdfJobService pdfJobService;
+
+    @Autowired
+    private RevisionStore revisionStore;
+
+    @Autowired
+    private PqcSignatureVerifier pqcVerifier;
+
+    @Autowired
+    private PublicKeyRegistry keyRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /** Dump of response payloads at DEBUG; off by default, sampled when on. */
+    @Value("${pdf.log.payload.enabled:false}")
+    private boolean payloadLogEnabled;
+
+    @Value("${pdf.log.payload.sample-rate:1.0}")
+    private double payloadLogSampleRate;
+
     /**
      * Prepares PDF for signing - only calculates hash
      */
@@ -47,13 +109,17 @@ public class PdfManagerController {
             logger.info("Preparing PDF for signing - Document ID: {}",
                     request.getMetadata() != null ? request.getMetadata().getDocumentId() : "unknown");
 
-            var result = pdfService.prepararPdf(
-                    request.getCaminhoArquivo(),
-                    request.getMetadata()
-            );
+            var result = admission.execute(sizeOf(request.getCaminhoArquivo()),
+                    () -> pdfService.prepararPdf(request.getCaminhoArquivo(), request.getMetadata()));
 
             return ResponseEntity.ok(ApiResponse.success(result));
 
+        } catch (ConflictException e) {
+            logger.warn("Conflict preparing PDF: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Conflict", e.getMessage()));
+
         } catch (ValidationException e) {
             logger.warn("Validation error preparing PDF: {}", e.getMessage());
             return ResponseEntity
@@ -66,6 +132,9 @@ public class PdfManagerController {
                     .status(HttpStatus.FORBIDDEN)
                     .body(ApiResponse.error("Security error", "Access denied"));
 
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
         } catch (Exception e) {
             logger.error("Error preparing PDF: {}", e.getMessage(), e);
             return ResponseEntity
@@ -92,15 +161,17 @@ public class PdfManagerController {
                 request.getMetadata().setIpAddress(getClientIpAddress(httpRequest));
             }
 
-            String signedPath = pdfService.finalizarPdf(
-                    request.getCaminhoArquivo(),
-                    request.getAssinaturaBase64(),
-                    request.getMetadata()
-            );
+            // O finalizar só copia o arquivo e troca a janela do /Contents
+            String signedPath = admission.execute(PdfAdmissionControl.FINALIZE_BYTES,
+                    () -> pdfService.finalizarPdf(
+                            request.getCaminhoArquivo(),
+                            request.getAssinaturaBase64(),
+                            request.getMetadata()));
 
             Map<String, Object> response = new HashMap<>();
             response.put("signedPath", signedPath);
             response.put("message", "PDF assinado com sucesso");
+            revisionStore.idOf(Paths.get(signedPath)).ifPresent(id -> response.put("revisionId", id));
 
             return ResponseEntity.ok(ApiResponse.success(response));
 
@@ -116,6 +187,9 @@ public class PdfManagerController {
                     .status(HttpStatus.FORBIDDEN)
                     .body(ApiResponse.error("Security error", "Access denied"));
 
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
         } catch (Exception e) {
             logger.error("Error finalizing PDF: {}", e.getMessage(), e);
             return ResponseEntity
@@ -125,29 +199,453 @@ public class PdfManagerController {
     }
 
     /**
-     * Verifica assinaturas em um PDF
+     * Prepares a batch of PDFs on the bounded worker pool - one result per document
+     */
+    @PostMapping("/preparar/lote")
+    public ResponseEntity<ApiResponse<?>> prepararLote(
+            @Valid @RequestBody BatchPrepareRequest request,
+            HttpServletRequest httpRequest) {
+
+        try {
+            String clientIp = getClientIpAddress(httpRequest);
+            List<PdfBatchService.PrepareItem> itens = new ArrayList<>();
+            for (PrepareRequest doc : request.getDocumentos()) {
+                fillIpAddress(doc.getMetadata(), clientIp);
+                itens.add(new PdfBatchService.PrepareItem(doc.getCaminhoArquivo(), doc.getMetadata()));
+            }
+
+            logger.info("Preparing batch of {} PDFs", itens.size());
+
+            var result = pdfBatchService.prepararLote(itens);
+
+            logger.info("Batch prepare done - {} ok, {} failed", result.getSucessos(), result.getFalhas());
+            return ResponseEntity.ok(ApiResponse.success(result));
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error preparing batch: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (Exception e) {
+            logger.error("Error preparing batch: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to prepare batch"));
+        }
+    }
+
+    /**
+     * Finalizes a batch of prepared PDFs on the bounded worker pool - one result per document
+     */
+    @PostMapping("/finalizar/lote")
+    public ResponseEntity<ApiResponse<?>> finalizarLote(
+            @Valid @RequestBody BatchFinalizeRequest request,
+            HttpServletRequest httpRequest) {
+
+        try {
+            String clientIp = getClientIpAddress(httpRequest);
+            List<PdfBatchService.FinalizeItem> itens = new ArrayList<>();
+            for (FinalizeRequest doc : request.getDocumentos()) {
+                fillIpAddress(doc.getMetadata(), clientIp);
+                itens.add(new PdfBatchService.FinalizeItem(
+                        doc.getCaminhoArquivo(), doc.getAssinaturaBase64(), doc.getMetadata()));
+            }
+
+            logger.info("Finalizing batch of {} PDFs", itens.size());
+
+            var result = pdfBatchService.finalizarLote(itens);
+
+            logger.info("Batch finalize done - {} ok, {} failed", result.getSucessos(), result.getFalhas());
+            return ResponseEntity.ok(ApiResponse.success(result));
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error finalizing batch: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (Exception e) {
+            logger.error("Error finalizing batch: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to finalize batch"));
+        }
+    }
+
+    // ========== REVISÕES ==========
+
+    /**
+     * Streams a stored revision, rebuilt from the base PDF plus its appended deltas
+     */
+    @GetMapping("/revisoes/{revisionId}")
+    public ResponseEntity<?> getRevision(@PathVariable String revisionId) {
+        try {
+            var revision = revisionStore.get(revisionId).orElse(null);
+            if (revision == null) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Not found", "Revisão não encontrada"));
+            }
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(revision.length())
+                    .eTag("\"" + revision.id() + "\"")
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + revision.id() + ".pdf\"")
+                    .body(new InputStreamResource(revisionStore.open(revisionId)));
+
+        } catch (Exception e) {
+            logger.error("Error reading revision: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to read revision"));
+        }
+    }
+
+    // ========== CHAVES PÚBLICAS ==========
+
+    /**
+     * Registers a public key; documents can then reference it by fingerprint only
+     */
+    @PostMapping("/chaves")
+    public ResponseEntity<ApiResponse<?>> registerKey(@Valid @RequestBody KeyRegisterRequest request) {
+        try {
+            var key = keyRegistry.register(request.getPublicKey());
+            logger.info("Public key registered: {}", key.fingerprint());
+            return ResponseEntity.ok(ApiResponse.success(new KeyResponse(key)));
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error registering key: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (Exception e) {
+            logger.error("Error registering key: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to register key"));
+        }
+    }
+
+    /**
+     * Looks up a registered public key by fingerprint ("sha256:..." or the bare hex)
+     */
+    @GetMapping("/chaves/{fingerprint}")
+    public ResponseEntity<ApiResponse<?>> getKey(@PathVariable String fingerprint) {
+        return keyRegistry.resolve(fingerprint)
+                .<ResponseEntity<ApiResponse<?>>>map(key -> ResponseEntity.ok(ApiResponse.success(new KeyResponse(key))))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Not found", "Chave pública não registrada")));
+    }
+
+    // ========== JOBS ASSÍNCRONOS ==========
+
+    /**
+     * Queues a prepare job and returns its ID at once (202). The result is
+     * polled at GET /jobs/{id} or posted to the optional callback URL.
+     */
+    @PostMapping("/jobs/preparar")
+    public ResponseEntity<ApiResponse<?>> submitPrepareJob(
+            @Valid @RequestBody JobPrepareRequest request,
+            HttpServletRequest httpRequest) {
+
+        try {
+            fillIpAddress(request.getMetadata(), getClientIpAddress(httpRequest));
+
+            var job = pdfJobService.submitPrepare(request.getCaminhoArquivo(), request.getMetadata(),
+                    request.getPriority(), request.getCallbackUrl());
+
+            logger.info("Prepare job queued - {} (priority {})", job.jobId(), job.priority());
+            return accepted(job);
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error queuing prepare job: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
+        } catch (Exception e) {
+            logger.error("Error queuing prepare job: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to queue job"));
+        }
+    }
+
+    /**
+     * Queues a verification job and returns its ID at once (202)
+     */
+    @PostMapping("/jobs/verificar")
+    public ResponseEntity<ApiResponse<?>> submitVerifyJob(@Valid @RequestBody JobVerifyRequest request) {
+
+        try {
+            var job = pdfJobService.submitVerify(request.getCaminhoArquivo(),
+                    request.getPriority(), request.getCallbackUrl());
+
+            logger.info("Verify job queued - {} (priority {})", job.jobId(), job.priority());
+            return accepted(job);
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error queuing verify job: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
+        } catch (Exception e) {
+            logger.error("Error queuing verify job: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to queue job"));
+        }
+    }
+
+    /**
+     * Current status of a job; the result is included once it has succeeded
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ApiResponse<?>> getJob(@PathVariable String jobId) {
+        return pdfJobService.get(jobId)
+                .<ResponseEntity<ApiResponse<?>>>map(job -> ResponseEntity.ok(ApiResponse.success(job)))
+                .orElseGet(() -> ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Not found", "Job não encontrado ou expirado")));
+    }
+
+    private ResponseEntity<ApiResponse<?>> accepted(PdfJobService.JobView job) {
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/pdfManager/jobs/" + job.jobId())
+                .body(ApiResponse.success(job));
+    }
+
+    // ========== STREAMING (sem caminho compartilhado) ==========
+
+    /**
+     * Prepares a PDF sent as multipart upload and streams the prepared PDF back
+     */
+    @PostMapping(value = "/stream/preparar", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> prepararStreamMultipart(
+            @RequestPart("arquivo") MultipartFile arquivo,
+            @RequestPart(value = "metadata", required = false) @Valid SignatureMetadata metadata,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest httpRequest) {
+
+        try (InputStream body = arquivo.getInputStream()) {
+            return prepararStream(body, metadata, delta, httpRequest);
+        } catch (IOException e) {
+            logger.error("Error reading upload: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to read upload"));
+        }
+    }
+
+    /**
+     * Prepares a PDF sent as the raw request body and streams the prepared PDF back.
+     * With delta=true the response is JSON with only the bytes appended to the upload;
+     * when preparing rewrote the whole file the PDF is streamed as usual, with X-PQC-Delta: full.
+     * Metadata comes as query parameters; the public key in the X-PQC-Public-Key header,
+     * or only the fingerprint of a registered key in X-PQC-Public-Key-Fingerprint.
+     */
+    @PostMapping(value = "/stream/preparar",
+            consumes = {MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> prepararStreamBody(
+            @RequestParam(required = false) String documentId,
+            @RequestParam(required = false) String signerName,
+            @RequestParam(required = false) String reason,
+            @RequestParam(required = false) String location,
+            @RequestHeader(value = "X-PQC-Public-Key", required = false) String publicKey,
+            @RequestHeader(value = "X-PQC-Public-Key-Fingerprint", required = false) String publicKeyFingerprint,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest httpRequest) {
+
+        SignatureMetadata metadata = new SignatureMetadata();
+        metadata.setDocumentId(documentId);
+        metadata.setSignerName(signerName);
+        metadata.setReason(reason);
+        metadata.setLocation(location);
+        metadata.setPublicKey(publicKey);
+        metadata.setPublicKeyFingerprint(publicKeyFingerprint);
+
+        try (InputStream body = httpRequest.getInputStream()) {
+            return prepararStream(body, metadata, delta, httpRequest);
+        } catch (IOException e) {
+            logger.error("Error reading request body: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to read request body"));
+        }
+    }
+
+    private ResponseEntity<?> prepararStream(InputStream body, SignatureMetadata metadata, boolean delta,
+                                             HttpServletRequest httpRequest) {
+        try {
+            if (metadata != null) fillIpAddress(metadata, getClientIpAddress(httpRequest));
+
+            var result   = pdfStreamService.preparar(body, metadata);
+            var response = result.response();
+
+            // A 1ª assinatura reescreve o arquivo: não há delta, vai o PDF inteiro
+            PdfDelta.Delta prepareDelta = delta ? pdfStreamService.prepareDelta(result.sessao()) : null;
+            if (prepareDelta != null && !prepareDelta.full()) {
+                Map<String, Object> data = new HashMap<>();
+                data.put("sessao", result.sessao());
+                data.put("toBeSignedBase64", response.getToBeSignedBase64());
+                data.put("signatureIndex", response.getSignatureIndex());
+                data.put("delta", prepareDelta);
+
+                logger.info("Prepared PDF delta - session {}, signature #{}",
+                        result.sessao(), response.getSignatureIndex());
+                return ResponseEntity.ok(ApiResponse.success(data));
+            }
+
+            logger.info("Streaming prepared PDF - session {}, signature #{}",
+                    result.sessao(), response.getSignatureIndex());
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .headers(h -> { if (prepareDelta != null) h.set("X-PQC-Delta", "full"); })
+                    .contentLength(Files.size(result.preparedFile()))
+                    .header("X-PQC-Sessao", result.sessao())
+                    .header("X-PQC-ToBeSigned", response.getToBeSignedBase64())
+                    .header("X-PQC-Signature-Index", String.valueOf(response.getSignatureIndex()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + result.sessao() + "_prepared.pdf\"")
+                    .body(streamFile(result.preparedFile(), null));
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error preparing streamed PDF: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
+        } catch (Exception e) {
+            logger.error("Error preparing streamed PDF: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to prepare PDF"));
+        }
+    }
+
+    /**
+     * Finalizes a streamed session and streams the signed PDF back.
+     * The session's work files are removed once the download completes.
+     * With delta=true only the patched /Contents range is returned, as JSON.
+     */
+    @PostMapping("/stream/finalizar/{sessao}")
+    public ResponseEntity<?> finalizarStream(
+            @PathVariable String sessao,
+            @Valid @RequestBody StreamFinalizeRequest request,
+            @RequestParam(defaultValue = "false") boolean delta,
+            HttpServletRequest httpRequest) {
+
+        try {
+            if (request.getMetadata() != null)
+                fillIpAddress(request.getMetadata(), getClientIpAddress(httpRequest));
+
+            Path signed = pdfStreamService.finalizar(
+                    sessao, request.getAssinaturaBase64(), request.getMetadata());
+
+            if (delta) {
+                try {
+                    var patch = pdfStreamService.finalizeDelta(sessao, signed);
+                    logger.info("Signed PDF delta - session {}", sanitizeForLog(sessao));
+                    return ResponseEntity.ok(ApiResponse.success(Map.of("delta", patch)));
+                } finally {
+                    pdfStreamService.release(sessao);
+                }
+            }
+
+            logger.info("Streaming signed PDF - session {}", sanitizeForLog(sessao));
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_PDF)
+                    .contentLength(Files.size(signed))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + signed.getFileName() + "\"")
+                    .body(streamFile(signed, sessao));
+
+        } catch (ValidationException | IllegalArgumentException e) {
+            logger.warn("Validation error finalizing streamed PDF: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (FileNotFoundException e) {
+            logger.warn("Streaming session not found: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("Not found", e.getMessage()));
+
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
+        } catch (Exception e) {
+            logger.error("Error finalizing streamed PDF: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to finalize PDF"));
+        }
+    }
+
+    /**
+     * Streams a file to the response in fixed-size chunks; optionally releases the session afterwards
+     */
+    private Resource streamFile(Path file, String releaseSessao) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (releaseSessao == null) return new InputStreamResource(in);
+
+        return new InputStreamResource(new FilterInputStream(in) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    pdfStreamService.release(releaseSessao);
+                }
+            }
+        });
+    }
+
+    /**
+     * Verifica assinaturas em um PDF.
+     * Responde com ETag; um If-None-Match igual devolve 304 sem reverificar.
      */
     @GetMapping("/verificar")
-    public ResponseEntity<ApiResponse<?>> verificar(@RequestParam String caminhoArquivo) {
+    public ResponseEntity<ApiResponse<?>> verificar(
+            @RequestParam String caminhoArquivo,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
 
         try {
             logger.info("Verifying signatures in PDF: {}", sanitizeForLog(caminhoArquivo));
 
-            var signatures = pdfService.verificarAssinaturas(caminhoArquivo);
-
-            // ✅ LOG: ver exatamente o que está sendo enviado ao C#
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper =
-                        new com.fasterxml.jackson.databind.ObjectMapper();
-                mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-                String jsonOutput = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(signatures);
-                logger.info("=== RESPOSTA ENVIADA AO C# ===\n{}", jsonOutput);
-                System.out.println("[VERIFICAR] JSON enviado ao C#:\n" + jsonOutput);
-            } catch (Exception logEx) {
-                logger.warn("Erro ao logar JSON: {}", logEx.getMessage());
+            var identity = verificationCache.identify(Paths.get(caminhoArquivo));
+            String etag  = identity.etag();
+
+            if (etagMatches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
             }
 
-            return ResponseEntity.ok(ApiResponse.success(signatures));
+            var signatures = verificationCache.getOrCompute(identity,
+                    () -> admission.execute(identity.size(),
+                            () -> pdfService.verificarAssinaturas(caminhoArquivo)));
+
+            logPayload("verificar", signatures);
+
+            return ResponseEntity.ok().eTag(etag).body(ApiResponse.success(signatures));
 
         } catch (FileNotFoundException e) {
             logger.warn("PDF not found: {}", e.getMessage());
@@ -155,6 +653,9 @@ public class PdfManagerController {
                     .status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("Not found", e.getMessage()));
 
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
         } catch (Exception e) {
             logger.error("Error verifying PDF: {}", e.getMessage(), e);
             return ResponseEntity
@@ -162,6 +663,116 @@ public class PdfManagerController {
                     .body(ApiResponse.error("Internal error", "Failed to verify PDF"));
         }
     }
+    /**
+     * Logs a response payload as JSON. The JSON is only built when payload
+     * logging is enabled, DEBUG is on and the request falls in the sample.
+     */
+    private void logPayload(String endpoint, Object payload) {
+        if (!payloadLogEnabled || !logger.isDebugEnabled()) return;
+        if (payloadLogSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= payloadLogSampleRate) return;
+
+        try {
+            logger.debug("Response payload endpoint={}\n{}", endpoint,
+                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(payload));
+        } catch (Exception e) {
+            logger.warn("Failed to serialize payload for log endpoint={}: {}", endpoint, e.getMessage());
+        }
+    }
+
+    /**
+     * Verifies every ML-DSA signature of a PDF in-process and returns one verdict
+     */
+    @GetMapping("/verificar/validar")
+    public ResponseEntity<ApiResponse<?>> validar(@RequestParam String caminhoArquivo) {
+        try {
+            logger.info("Validating signatures in PDF: {}", sanitizeForLog(caminhoArquivo));
+
+            var verdict = pqcVerifier.verify(caminhoArquivo, path -> loadSignatures(path, false));
+            return ResponseEntity.ok(ApiResponse.success(verdict));
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error validating PDF: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
+        } catch (Exception e) {
+            logger.error("Error validating PDF: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to validate PDF"));
+        }
+    }
+
+    /**
+     * Verifies all signatures of many PDFs in parallel - one verdict for the whole batch
+     */
+    @PostMapping("/verificar/validar/lote")
+    public ResponseEntity<ApiResponse<?>> validarLote(@Valid @RequestBody BatchValidateRequest request) {
+        try {
+            logger.info("Validating batch of {} PDFs", request.getCaminhos().size());
+
+            var verdict = pqcVerifier.verifyAll(request.getCaminhos(), path -> loadSignatures(path, true));
+
+            logger.info("Batch validation done - {} documents, {} invalid", verdict.getTotal(), verdict.getInvalidos());
+            return ResponseEntity.ok(ApiResponse.success(verdict));
+
+        } catch (ValidationException e) {
+            logger.warn("Validation error validating batch: {}", e.getMessage());
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error("Validation error", e.getMessage()));
+
+        } catch (OverloadedException e) {
+            return overloaded(e);
+
+        } catch (Exception e) {
+            logger.error("Error validating batch: {}", e.getMessage(), e);
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Internal error", "Failed to validate batch"));
+        }
+    }
+
+    /**
+     * Signature list of a PDF through the verification cache; misses go through
+     * admission control (batch items wait for budget instead of failing at once)
+     */
+    private List<PdfService.SignatureInfo> loadSignatures(String caminhoArquivo, boolean batch) throws Exception {
+        Path path = Paths.get(caminhoArquivo);
+        if (!Files.isRegularFile(path))
+            throw new FileNotFoundException("PDF não encontrado: " + caminhoArquivo);
+
+        var identity = verificationCache.identify(path);
+        return verificationCache.getOrCompute(identity, () -> batch
+                ? admission.executeWaiting(identity.size(), () -> pdfService.verificarAssinaturas(caminhoArquivo))
+                : admission.execute(identity.size(), () -> pdfService.verificarAssinaturas(caminhoArquivo)));
+    }
+
+    /**
+     * 429 with Retry-After when admission control rejects a request
+     */
+    private ResponseEntity<ApiResponse<?>> overloaded(OverloadedException e) {
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(ApiResponse.error("Overloaded", e.getMessage()));
+    }
+
+    /**
+     * Size of a shared-path PDF for admission; a missing file is reported by the service itself
+     */
+    private long sizeOf(String caminhoArquivo) {
+        try {
+            return Files.size(Paths.get(caminhoArquivo));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
     /**
      * Enhanced IP extraction with security considerations
      */
@@ -188,6 +799,29 @@ public class PdfManagerController {
         return ip != null ? ip : "unknown";
     }
 
+    /**
+     * Auto-populates the IP of a batch item if not provided
+     */
+    private void fillIpAddress(SignatureMetadata metadata, String clientIp) {
+        if (metadata != null &&
+                (metadata.getIpAddress() == null || metadata.getIpAddress().isEmpty())) {
+            metadata.setIpAddress(clientIp);
+        }
+    }
+
+    /**
+     * Checks an If-None-Match header (single, list or wildcard) against the current ETag
+     */
+    private boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.startsWith("W/")) c = c.substring(2);
+            if (c.equals("*") || c.equals(etag)) return true;
+        }
+        return false;
+    }
+
     /**
      * Validates IP address format
      */
@@ -242,6 +876,96 @@ public class PdfManagerController {
         public void setMetadata(SignatureMetadata metadata) { this.metadata = metadata; }
     }
 
+    public static class BatchPrepareRequest {
+        @NotEmpty(message = "Lista de documentos é obrigatória")
+        private List<@Valid PrepareRequest> documentos;
+
+        public List<PrepareRequest> getDocumentos() { return documentos; }
+        public void setDocumentos(List<PrepareRequest> documentos) { this.documentos = documentos; }
+    }
+
+    public static class BatchFinalizeRequest {
+        @NotEmpty(message = "Lista de documentos é obrigatória")
+        private List<@Valid FinalizeRequest> documentos;
+
+        public List<FinalizeRequest> getDocumentos() { return documentos; }
+        public void setDocumentos(List<FinalizeRequest> documentos) { this.documentos = documentos; }
+    }
+
+    public static class JobPrepareRequest extends PrepareRequest {
+        private int priority;
+        private String callbackUrl;
+
+        public int getPriority() { return priority; }
+        public void setPriority(int priority) { this.priority = priority; }
+
+        public String getCallbackUrl() { return callbackUrl; }
+        public void setCallbackUrl(String callbackUrl) { this.callbackUrl = callbackUrl; }
+    }
+
+    public static class JobVerifyRequest {
+        @NotBlank(message = "Caminho do arquivo é obrigatório")
+        private String caminhoArquivo;
+
+        private int priority;
+        private String callbackUrl;
+
+        public String getCaminhoArquivo() { return caminhoArquivo; }
+        public void setCaminhoArquivo(String caminhoArquivo) { this.caminhoArquivo = caminhoArquivo; }
+
+        public int getPriority() { return priority; }
+        public void setPriority(int priority) { this.priority = priority; }
+
+        public String getCallbackUrl() { return callbackUrl; }
+        public void setCallbackUrl(String callbackUrl) { this.callbackUrl = callbackUrl; }
+    }
+
+    public static class BatchValidateRequest {
+        @NotEmpty(message = "Lista de documentos é obrigatória")
+        private List<@NotBlank String> caminhos;
+
+        public List<String> getCaminhos() { return caminhos; }
+        public void setCaminhos(List<String> caminhos) { this.caminhos = caminhos; }
+    }
+
+    public static class KeyRegisterRequest {
+        @NotBlank(message = "Chave pública é obrigatória")
+        private String publicKey;
+
+        public String getPublicKey() { return publicKey; }
+        public void setPublicKey(String publicKey) { this.publicKey = publicKey; }
+    }
+
+    public static class StreamFinalizeRequest {
+        @NotBlank(message = "Assinatura é obrigatória")
+        private String assinaturaBase64;
+
+        @Valid
+        private SignatureMetadata metadata;
+
+        public String getAssinaturaBase64() { return assinaturaBase64; }
+        public void setAssinaturaBase64(String assinaturaBase64) { this.assinaturaBase64 = assinaturaBase64; }
+
+        public SignatureMetadata getMetadata() { return metadata; }
+        public void setMetadata(SignatureMetadata metadata) { this.metadata = metadata; }
+    }
+
+    // ========== RESPONSE DTOs ==========
+
+    public static class KeyResponse {
+        private final String fingerprint, algorithm, publicKey;
+
+        KeyResponse(PublicKeyRegistry.RegisteredKey key) {
+            this.fingerprint = key.fingerprint();
+            this.algorithm   = key.algorithm();
+            this.publicKey   = key.publicKeyBase64();
+        }
+
+        public String getFingerprint() { return fingerprint; }
+        public String getAlgorithm()   { return algorithm; }
+        public String getPublicKey()   { return publicKey; }
+    }
+
     // ========== RESPONSE WRAPPER ==========
 
     public static class ApiResponse<T> {
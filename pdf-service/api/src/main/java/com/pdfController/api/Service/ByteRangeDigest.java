@@ -0,0 +1,101 @@
+package com.pdfController.api.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Calcula o digest dos dois segmentos de um /ByteRange sem montar uma
+ * cópia do conteúdo coberto. Os segmentos são lidos direto do
+ * FileChannel (ou do array já em memória) para dentro do MessageDigest.
+ */
+public final class ByteRangeDigest {
+
+    public static final String DEFAULT_ALGORITHM = "SHA-256";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private ByteRangeDigest() {}
+
+    /**
+     * Digest dos segmentos do ByteRange de um arquivo em disco.
+     */
+    public static byte[] digest(Path pdfPath, int[] byteRange) throws IOException {
+        try (FileChannel channel = FileChannel.open(pdfPath, StandardOpenOption.READ)) {
+            return digest(channel, byteRange);
+        }
+    }
+
+    /**
+     * Digest dos segmentos do ByteRange lidos de um canal já aberto.
+     * Usa leitura posicional — a posição do canal não é alterada, então
+     * o mesmo canal pode ser reaproveitado para várias assinaturas.
+     */
+    public static byte[] digest(FileChannel channel, int[] byteRange) throws IOException {
+        validate(byteRange, channel.size());
+        MessageDigest md = newDigest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        update(md, channel, byteRange[0], byteRange[1], buffer);
+        update(md, channel, byteRange[2], byteRange[3], buffer);
+        return md.digest();
+    }
+
+    /**
+     * Digest dos segmentos do ByteRange de um PDF já carregado em memória.
+     */
+    public static byte[] digest(byte[] pdfBytes, int[] byteRange) {
+        validate(byteRange, pdfBytes.length);
+        MessageDigest md = newDigest();
+        md.update(pdfBytes, byteRange[0], byteRange[1]);
+        md.update(pdfBytes, byteRange[2], byteRange[3]);
+        return md.digest();
+    }
+
+    /**
+     * Alimenta o digest com {@code length} bytes do canal a partir de
+     * {@code position}, reaproveitando o buffer recebido.
+     */
+    public static void update(MessageDigest md, FileChannel channel, long position,
+                              long length, ByteBuffer buffer) throws IOException {
+        long remaining = length;
+        long pos       = position;
+
+        while (remaining > 0) {
+            buffer.clear();
+            if (remaining < buffer.capacity()) buffer.limit((int) remaining);
+
+            int read = channel.read(buffer, pos);
+            if (read < 0)
+                throw new EOFException("Fim do arquivo antes do fim do ByteRange (pos=" + pos + ")");
+
+            md.update(buffer.array(), buffer.arrayOffset(), read);
+            pos       += read;
+            remaining -= read;
+        }
+    }
+
+    /**
+     * Confere que o ByteRange tem quatro valores e cabe no tamanho informado.
+     */
+    public static void validate(int[] byteRange, long size) {
+        if (byteRange == null || byteRange.length != 4)
+            throw new IllegalArgumentException("ByteRange deve ter 4 valores");
+        for (int v : byteRange)
+            if (v < 0) throw new IllegalArgumentException("ByteRange com valor negativo");
+        if ((long) byteRange[0] + byteRange[1] > size || (long) byteRange[2] + byteRange[3] > size)
+            throw new IllegalArgumentException("ByteRange excede o tamanho do arquivo (" + size + " bytes)");
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DEFAULT_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DEFAULT_ALGORITHM + " indisponível na JVM", e);
+        }
+    }
+}
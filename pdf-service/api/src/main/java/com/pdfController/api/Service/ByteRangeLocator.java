@@ -0,0 +1,158 @@
+package com.pdfController.api.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Localiza o /ByteRange da assinatura mais recente varrendo o PDF de trás
+ * para frente a partir do %%EOF. Como cada assinatura nova fica na última
+ * seção incremental, o primeiro /ByteRange válido encontrado é o da última
+ * assinatura e a busca para ali — sem percorrer o arquivo inteiro.
+ */
+public final class ByteRangeLocator {
+
+    private static final byte[] MARKER =
+            "/ByteRange".getBytes(StandardCharsets.US_ASCII);
+
+    /** Espaço máximo ocupado por "/ByteRange [a b c d]" com números de até 10 dígitos. */
+    private static final int MAX_ENTRY = 128;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private ByteRangeLocator() {}
+
+    /**
+     * Posição do /ByteRange mais recente e da janela /Contents que ele exclui.
+     */
+    public record Location(int[] byteRange, long markerOffset) {
+
+        /** Offset do '<' que abre o /Contents. */
+        public long contentsStart() { return byteRange[1]; }
+
+        /** Offset logo após o '>' que fecha o /Contents. */
+        public long contentsEnd()   { return byteRange[2]; }
+
+        public int contentsLength() { return byteRange[2] - byteRange[1]; }
+
+        /** Quantidade de bytes cobertos pela assinatura. */
+        public long coveredLength() { return (long) byteRange[1] + byteRange[3]; }
+    }
+
+    @FunctionalInterface
+    private interface ByteSource {
+        int byteAt(long offset) throws IOException;
+    }
+
+    /**
+     * Busca no PDF já carregado em memória.
+     */
+    public static Location locateLast(byte[] pdfBytes) {
+        try {
+            return scan(pdfBytes, 0, pdfBytes.length, 0, pdfBytes.length, true,
+                    offset -> offset < pdfBytes.length ? pdfBytes[(int) offset] & 0xff : -1);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // não ocorre com byte[]
+        }
+    }
+
+    /**
+     * Busca lendo o canal em blocos a partir do fim do arquivo.
+     * Usa leitura posicional; a posição do canal não é alterada.
+     */
+    public static Location locateLast(FileChannel channel) throws IOException {
+        long size = channel.size();
+        ByteBuffer one = ByteBuffer.allocate(1);
+        ByteSource source = offset -> {
+            one.clear();
+            return channel.read(one, offset) == 1 ? one.get(0) & 0xff : -1;
+        };
+
+        byte[] chunk = new byte[(int) Math.min(CHUNK_SIZE, size)];
+        long chunkEnd = size;
+
+        while (chunkEnd > 0) {
+            long chunkStart = Math.max(0, chunkEnd - chunk.length);
+            int  length     = (int) (chunkEnd - chunkStart);
+
+            ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, length);
+            long pos = chunkStart;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, pos);
+                if (read < 0) break;
+                pos += read;
+            }
+
+            // Os blocos se sobrepõem em MAX_ENTRY bytes: uma entrada que começa
+            // no fim deste bloco já foi examinada inteira no bloco seguinte.
+            Location found = scan(chunk, 0, length, chunkStart, size, chunkEnd == size, source);
+            if (found != null) return found;
+
+            if (chunkStart == 0) break;
+            chunkEnd = chunkStart + MAX_ENTRY;
+        }
+        return null;
+    }
+
+    private static Location scan(byte[] buf, int from, int to, long base, long fileSize,
+                                 boolean atEof, ByteSource source) throws IOException {
+        int last = atEof ? to - MARKER.length : to - MAX_ENTRY;
+
+        for (int i = last; i >= from; i--) {
+            if (!matchesMarker(buf, i, to)) continue;
+
+            int[] values = parseValues(buf, i + MARKER.length, to);
+            if (values == null || !isPlausible(values, fileSize)) continue;
+
+            // Confere que a janela excluída é de fato um /Contents hexadecimal
+            if (source.byteAt(values[1]) != '<' || source.byteAt(values[2] - 1L) != '>') continue;
+
+            return new Location(values, base + i);
+        }
+        return null;
+    }
+
+    private static boolean matchesMarker(byte[] buf, int i, int to) {
+        if (i + MARKER.length > to) return false;
+        for (int j = 0; j < MARKER.length; j++)
+            if (buf[i + j] != MARKER[j]) return false;
+        return true;
+    }
+
+    private static int[] parseValues(byte[] buf, int pos, int to) {
+        pos = skipWhitespace(buf, pos, to);
+        if (pos >= to || buf[pos] != '[') return null;
+        pos++;
+
+        int[] values = new int[4];
+        for (int count = 0; count < 4; count++) {
+            pos = skipWhitespace(buf, pos, to);
+
+            long value  = 0;
+            int  digits = 0;
+            while (pos < to && buf[pos] >= '0' && buf[pos] <= '9') {
+                value = value * 10 + (buf[pos++] - '0');
+                if (++digits > 10 || value > Integer.MAX_VALUE) return null;
+            }
+            if (digits == 0) return null;
+            values[count] = (int) value;
+        }
+
+        pos = skipWhitespace(buf, pos, to);
+        return pos < to && buf[pos] == ']' ? values : null;
+    }
+
+    /** Espaços em branco do PDF (ISO 32000-1, 7.2.2): NUL, TAB, LF, FF, CR e SP. */
+    private static int skipWhitespace(byte[] buf, int pos, int to) {
+        while (pos < to && (buf[pos] == ' ' || buf[pos] == '\t' || buf[pos] == '\r'
+                || buf[pos] == '\n' || buf[pos] == '\f' || buf[pos] == 0))
+            pos++;
+        return pos;
+    }
+
+    private static boolean isPlausible(int[] v, long fileSize) {
+        return v[0] == 0 && v[1] > 0 && v[2] > v[1] && v[3] > 0
+                && (long) v[2] + v[3] <= fileSize;
+    }
+}
@@ -0,0 +1,129 @@
+package com.pdfController.api.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordenação por documento entre requisições concorrentes.
+ *
+ * <ul>
+ *   <li><b>Locks listrados</b>: o caminho do documento escolhe um de N locks
+ *       fixos. Operações no mesmo documento são serializadas; documentos
+ *       diferentes só disputam o mesmo lock por colisão de hash, sem
+ *       registro de lock por arquivo para limpar depois.</li>
+ *   <li><b>Single-flight</b>: requisições idênticas em andamento (mesmo
+ *       documento e mesmo fingerprint) compartilham uma única execução e
+ *       recebem o mesmo resultado — ou a mesma exceção.</li>
+ * </ul>
+ */
+@Component
+public class DocumentCoordinator {
+
+    private final ReentrantLock[] stripes;
+    private final int             mask;
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final MeterRegistry        registry;
+    private final Map<String, Counter> coalesced = new ConcurrentHashMap<>();
+
+    public DocumentCoordinator(@Value("${pdf.coordination.stripes:256}") int stripes,
+                               MeterRegistry registry) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) this.stripes[i] = new ReentrantLock();
+        this.mask     = size - 1;
+        this.registry = registry;
+        for (String operation : new String[]{PdfMetrics.PREPARE, PdfMetrics.FINALIZE, PdfMetrics.VERIFY})
+            coalesced.put(operation, coalescedCounter(operation));
+    }
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Executa {@code work} com o lock do documento, coalescendo com uma
+     * execução idêntica já em andamento.
+     */
+    public <T> T exclusive(String operation, String documentPath, String fingerprint, Work<T> work)
+            throws Exception {
+        String document = canonical(documentPath);
+        return singleFlight(operation, document, fingerprint, () -> {
+            ReentrantLock lock = stripeFor(document);
+            lock.lockInterruptibly();
+            try {
+                return work.run();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Apenas coalesce requisições idênticas, sem lock — para leituras.
+     */
+    public <T> T shared(String operation, String documentPath, String fingerprint, Work<T> work)
+            throws Exception {
+        return singleFlight(operation, canonical(documentPath), fingerprint, work);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(String operation, String document, String fingerprint, Work<T> work)
+            throws Exception {
+        String key = operation + '\u0000' + document + '\u0000' + fingerprint;
+
+        CompletableFuture<Object> mine     = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.computeIfAbsent(operation, this::coalescedCounter).increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T result = work.run();
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    private ReentrantLock stripeFor(String document) {
+        int h = document.hashCode();
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+
+    private Counter coalescedCounter(String operation) {
+        return Counter.builder("pdf.coordination.coalesced")
+                .description("Requisições que reaproveitaram uma execução idêntica em andamento")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    private static String canonical(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,35 @@
+package com.pdfController.api.Service;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.SignatureValue;
+import eu.europa.esig.dss.pades.PAdESSignatureParameters;
+import eu.europa.esig.dss.pades.signature.PAdESService;
+import eu.europa.esig.dss.pdf.pdfbox.PdfBoxNativeObjectFactory;
+import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Instância única do PAdESService, compartilhada por todas as requisições.
+ *
+ * O serviço, o CommonCertificateVerifier e a fábrica PDFBox não guardam
+ * estado por documento — os parâmetros de cada assinatura chegam em cada
+ * chamada — então podem ser usados concorrentemente. Antes eram recriados
+ * a cada /preparar.
+ */
+@Component
+public class DssEngine {
+
+    private final PAdESService service;
+
+    public DssEngine() {
+        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
+        verifier.setCheckRevocationForUntrustedChains(false);
+        this.service = new PAdESService(verifier);
+        this.service.setPdfObjFactory(new PdfBoxNativeObjectFactory());
+    }
+
+    public DSSDocument signDocument(DSSDocument document, PAdESSignatureParameters params,
+                                    SignatureValue signatureValue) {
+        return service.signDocument(document, params, signatureValue);
+    }
+}
@@ -0,0 +1,119 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.BlockFonts;
+import jakarta.annotation.PostConstruct;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static com.pdfController.api.Service.PdfService.*;
+
+/**
+ * Parte estática da página "HISTÓRICO DE ASSINATURAS DIGITAIS" —
+ * cabeçalho, linhas e texto do rodapé — renderizada uma única vez na
+ * inicialização e guardada já comprimida.
+ *
+ * Cada documento recebe um Form XObject com esses bytes copiados como
+ * estão (sem redesenhar nem recomprimir), apontando para as mesmas fontes
+ * que os blocos de assinatura usam.
+ */
+@Component
+public class MetadataPageTemplate {
+
+    private static final COSName FONT_REGULAR = COSName.getPDFName("F1");
+    private static final COSName FONT_BOLD    = COSName.getPDFName("F2");
+    private static final COSName FONT_OBLIQUE = COSName.getPDFName("F3");
+
+    /** Conteúdo estático, já codificado em FlateDecode. */
+    private byte[] encodedContent;
+
+    @PostConstruct
+    void build() throws IOException {
+        try (PDDocument scratch = new PDDocument()) {
+            PDAppearanceStream form = new PDAppearanceStream(scratch);
+            form.setBBox(new PDRectangle(PAGE_WIDTH, PAGE_HEIGHT));
+            BlockFonts fonts = BlockFonts.standard();
+            form.setResources(resourcesFor(fonts));
+
+            COSStream stream = form.getCOSObject();
+            try (OutputStream out = stream.createOutputStream(COSName.FLATE_DECODE);
+                 PDPageContentStream cs = new PDPageContentStream(scratch, form, out)) {
+                drawStaticContent(cs, fonts);
+            }
+
+            try (InputStream raw = stream.createRawInputStream()) {
+                encodedContent = raw.readAllBytes();
+            }
+        }
+    }
+
+    /**
+     * Cria no documento o Form XObject da parte estática da página.
+     */
+    public PDFormXObject instantiate(PDDocument doc, BlockFonts fonts) throws IOException {
+        PDFormXObject form = new PDFormXObject(doc);
+        COSStream stream = form.getCOSObject();
+        try (OutputStream out = stream.createRawOutputStream()) {
+            out.write(encodedContent);
+        }
+        stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        form.setBBox(new PDRectangle(PAGE_WIDTH, PAGE_HEIGHT));
+        form.setResources(resourcesFor(fonts));
+        return form;
+    }
+
+    private static PDResources resourcesFor(BlockFonts fonts) {
+        PDResources resources = new PDResources();
+        resources.put(FONT_REGULAR, fonts.regular());
+        resources.put(FONT_BOLD,    fonts.bold());
+        resources.put(FONT_OBLIQUE, fonts.oblique());
+        return resources;
+    }
+
+    private static void drawStaticContent(PDPageContentStream cs, BlockFonts fonts) throws IOException {
+        // Cabeçalho
+        float y = PAGE_HEIGHT - MARGIN;
+        cs.setLineWidth(1.5f);
+        cs.moveTo(MARGIN, y); cs.lineTo(PAGE_WIDTH - MARGIN, y); cs.stroke();
+        y -= 18;
+
+        cs.beginText();
+        cs.setFont(fonts.bold(), 13);
+        cs.newLineAtOffset(MARGIN, y);
+        cs.showText("HISTÓRICO DE ASSINATURAS DIGITAIS");
+        cs.endText();
+        y -= 14;
+
+        cs.beginText();
+        cs.setFont(fonts.regular(), 8);
+        cs.newLineAtOffset(MARGIN, y);
+        cs.showText("Documento assinado eletronicamente conforme ICP-Brasil / PAdES (DOC-ICP-15)");
+        cs.endText();
+        y -= 10;
+
+        cs.setLineWidth(0.5f);
+        cs.moveTo(MARGIN, y); cs.lineTo(PAGE_WIDTH - MARGIN, y); cs.stroke();
+
+        // Rodapé (a data de geração é desenhada por documento)
+        float footerY = MARGIN + FOOTER_HEIGHT - 8;
+        cs.setLineWidth(0.5f);
+        cs.moveTo(MARGIN, footerY + 14); cs.lineTo(PAGE_WIDTH - MARGIN, footerY + 14); cs.stroke();
+
+        cs.beginText();
+        cs.setFont(fonts.oblique(), 7);
+        cs.newLineAtOffset(MARGIN, footerY);
+        cs.showText("Este documento possui assinatura(s) digital(is) válida(s). " +
+                "Para verificar, acesse: https://verificador.iti.gov.br");
+        cs.endText();
+    }
+}
@@ -0,0 +1,296 @@
+package com.pdfController.api.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Controle de admissão e bulkhead de CPU para preparar/finalizar/verificar.
+ *
+ * <ul>
+ *   <li><b>Memória</b>: cada requisição reserva o tamanho do PDF × fator de
+ *       expansão (o PDFBox/DSS mantêm o documento parseado em memória). Se a
+ *       soma das reservas passaria do orçamento, a requisição é recusada na
+ *       hora — o controller responde 429 com Retry-After — em vez de
+ *       disputar heap até um OutOfMemoryError.</li>
+ *   <li><b>CPU</b>: o trabalho de PDF/DSS roda num pool fixo (núcleos) com
+ *       fila curta. Com a fila cheia a requisição também é recusada; a
+ *       thread da requisição só espera o resultado.</li>
+ * </ul>
+ *
+ * Requisições interativas usam {@link #execute}: recusa imediata. Trabalho
+ * em segundo plano (itens de lote, jobs) usa {@link #executeWaiting}: espera
+ * memória e vaga no pool por até pdf.admission.max-wait antes de desistir —
+ * o mesmo orçamento, só que sem devolver 429 a cada item.
+ *
+ * Com spring.threads.virtual.enabled=true (Java 21) o Tomcat atende cada
+ * requisição numa virtual thread e deixa de limitar a concorrência — quem
+ * limita passa a ser este componente. As esperas (memória numa Condition,
+ * vaga no pool num Semaphore) estacionam a virtual thread sem prender a
+ * thread de plataforma — nada aqui usa synchronized nem polling.
+ *
+ * O finalizar não parseia o documento (copia por transferTo e troca a
+ * janela do /Contents): reserva {@link #FINALIZE_BYTES}, não o tamanho do PDF.
+ */
+@Component
+public class PdfAdmissionControl {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfAdmissionControl.class);
+
+    /** Reserva do finalizar: janela do /Contents (até ~100 KB em SLH-DSA) + buffers da cópia. */
+    public static final long FINALIZE_BYTES = 128 * 1024;
+
+    private final boolean enabled;
+    private final long    maxBytesInFlight;
+    private final double  memoryFactor;
+    private final long    retryAfterSeconds;
+    private final Duration maxWait;
+
+    private final ThreadPoolExecutor cpuExecutor;
+    private final AtomicLong         bytesInFlight = new AtomicLong();
+    private final Counter            rejectedMemory;
+    private final Counter            rejectedCpu;
+
+    /** Vagas do pool de CPU (threads + fila): adquirida antes de submeter, devolvida ao terminar. */
+    private final Semaphore cpuSlots;
+
+    /** Sinalizada quando uma reserva é liberada — acorda quem espera memória. */
+    private final ReentrantLock releaseLock    = new ReentrantLock();
+    private final Condition     memoryReleased = releaseLock.newCondition();
+
+    public PdfAdmissionControl(
+            @Value("${pdf.admission.enabled:true}") boolean enabled,
+            @Value("${pdf.admission.max-bytes-in-flight:0}") DataSize maxBytesInFlight,
+            @Value("${pdf.admission.memory-factor:3.0}") double memoryFactor,
+            @Value("${pdf.admission.retry-after:PT2S}") Duration retryAfter,
+            @Value("${pdf.admission.max-wait:PT30S}") Duration maxWait,
+            @Value("${pdf.cpu.threads:0}") int cpuThreads,
+            @Value("${pdf.cpu.queue-capacity:0}") int queueCapacity,
+            MeterRegistry registry) {
+        this.enabled           = enabled;
+        this.maxBytesInFlight  = maxBytesInFlight.toBytes() > 0
+                ? maxBytesInFlight.toBytes()
+                : Runtime.getRuntime().maxMemory() / 2;
+        this.memoryFactor      = Math.max(1.0, memoryFactor);
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.maxWait           = maxWait;
+
+        int threads  = cpuThreads > 0 ? cpuThreads : Runtime.getRuntime().availableProcessors();
+        int capacity = queueCapacity > 0 ? queueCapacity : threads * 2;
+
+        // A fila em si não tem limite: quem limita são as vagas do semáforo
+        this.cpuSlots = new Semaphore(threads + capacity);
+        AtomicInteger counter = new AtomicInteger();
+        this.cpuExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "pdf-cpu-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("pdf.admission.bytes.inflight", bytesInFlight, AtomicLong::get)
+                .description("Memória reservada pelas requisições em andamento")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("pdf.cpu.queue", cpuExecutor, e -> e.getQueue().size())
+                .description("Tarefas de PDF aguardando o pool de CPU")
+                .register(registry);
+        Gauge.builder("pdf.cpu.active", cpuExecutor, ThreadPoolExecutor::getActiveCount)
+                .description("Tarefas de PDF em execução no pool de CPU")
+                .register(registry);
+        this.rejectedMemory = Counter.builder("pdf.admission.rejected").tag("reason", "memory").register(registry);
+        this.rejectedCpu    = Counter.builder("pdf.admission.rejected").tag("reason", "cpu").register(registry);
+
+        logger.info("Admissão {}: orçamento {} MB (fator {}), pool de CPU {} threads / fila {}",
+                enabled ? "ativa" : "desligada", this.maxBytesInFlight / (1024 * 1024),
+                this.memoryFactor, threads, capacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cpuExecutor.shutdownNow();
+    }
+
+    // =========================
+    // ADMISSÃO
+    // =========================
+
+    /**
+     * Reserva memória para um documento de {@code documentBytes} e executa
+     * {@code task} no pool de CPU. A reserva é liberada ao final.
+     */
+    public <T> T execute(long documentBytes, Callable<T> task) throws Exception {
+        try (Permit permit = admit(documentBytes)) {
+            return runCpu(task);
+        }
+    }
+
+    /**
+     * Reserva memória para um documento de {@code documentBytes}. Um documento
+     * maior que o orçamento inteiro ainda é aceito quando nada mais está em
+     * andamento, para não ficar recusado para sempre.
+     */
+    public Permit admit(long documentBytes) throws OverloadedException {
+        if (!enabled) return new Permit(0);
+
+        long weight = weightOf(documentBytes);
+        if (tryReserve(weight)) return new Permit(weight);
+        throw rejectMemory(weight);
+    }
+
+    /**
+     * Como {@link #execute}, mas espera memória e vaga no pool de CPU por
+     * até pdf.admission.max-wait, em vez de recusar na hora. Para trabalho
+     * em segundo plano, que não tem um cliente esperando o 429.
+     */
+    public <T> T executeWaiting(long documentBytes, Callable<T> task) throws Exception {
+        if (!enabled) return task.call();
+
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        long weight   = weightOf(documentBytes);
+        if (!tryReserve(weight)) {
+            releaseLock.lock();
+            try {
+                long remaining = deadline - System.nanoTime();
+                while (!tryReserve(weight)) {
+                    if (remaining <= 0) throw rejectMemory(weight);
+                    remaining = memoryReleased.awaitNanos(remaining);
+                }
+            } finally {
+                releaseLock.unlock();
+            }
+        }
+
+        try (Permit permit = new Permit(weight)) {
+            long remaining = deadline - System.nanoTime();
+            if (!cpuSlots.tryAcquire(Math.max(0, remaining), TimeUnit.NANOSECONDS)) throw rejectCpu();
+            return await(submitCpu(task));
+        }
+    }
+
+    private long weightOf(long documentBytes) {
+        return (long) (Math.max(0, documentBytes) * memoryFactor);
+    }
+
+    private boolean tryReserve(long weight) {
+        while (true) {
+            long current = bytesInFlight.get();
+            if (current > 0 && current + weight > maxBytesInFlight) return false;
+            if (bytesInFlight.compareAndSet(current, current + weight)) return true;
+        }
+    }
+
+    private OverloadedException rejectMemory(long weight) {
+        rejectedMemory.increment();
+        logger.warn("Requisição recusada: memória em uso {} + {} bytes excede o orçamento {}",
+                bytesInFlight.get(), weight, maxBytesInFlight);
+        return new OverloadedException("Serviço sobrecarregado: memória de processamento esgotada",
+                retryAfterSeconds);
+    }
+
+    /**
+     * Executa {@code task} no pool de CPU e espera o resultado; exceções da
+     * tarefa são repassadas como estão.
+     */
+    public <T> T runCpu(Callable<T> task) throws Exception {
+        if (!enabled) return task.call();
+
+        if (!cpuSlots.tryAcquire()) throw rejectCpu();
+        return await(submitCpu(task));
+    }
+
+    /**
+     * Enfileira no pool de CPU com uma vaga já adquirida. A vaga volta quando
+     * a tarefa termina ou é cancelada — mesmo cancelada ainda na fila.
+     */
+    private <T> Future<T> submitCpu(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task) {
+            @Override
+            protected void done() {
+                cpuSlots.release();
+            }
+        };
+        try {
+            cpuExecutor.execute(future);
+        } catch (RejectedExecutionException e) {
+            cpuSlots.release();     // só após o shutdown
+            throw e;
+        }
+        return future;
+    }
+
+    private OverloadedException rejectCpu() {
+        rejectedCpu.increment();
+        logger.warn("Requisição recusada: fila de CPU cheia ({} aguardando)", cpuExecutor.getQueue().size());
+        return new OverloadedException("Serviço sobrecarregado: fila de processamento cheia", retryAfterSeconds);
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    public long getBytesInFlight() { return bytesInFlight.get(); }
+
+    int availableCpuSlots() { return cpuSlots.availablePermits(); }
+
+    int cpuQueueSize() { return cpuExecutor.getQueue().size(); }
+
+    public final class Permit implements AutoCloseable {
+        private final long weight;
+        private boolean    released;
+
+        private Permit(long weight) { this.weight = weight; }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            bytesInFlight.addAndGet(-weight);
+            releaseLock.lock();
+            try {
+                memoryReleased.signalAll();
+            } finally {
+                releaseLock.unlock();
+            }
+        }
+    }
+
+    // =========================
+    // EXCEÇÃO
+    // =========================
+
+    public static class OverloadedException extends Exception {
+        private final long retryAfterSeconds;
+
+        public OverloadedException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    }
+}
@@ -0,0 +1,222 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfAdmissionControl.OverloadedException;
+import com.pdfController.api.Service.PdfService.ConflictException;
+import com.pdfController.api.Service.PdfService.PrepareResponse;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import com.pdfController.api.Service.PdfService.ValidationException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa preparações e finalizações em lote num pool de workers limitado.
+ * Cada documento gera o seu próprio resultado — uma falha em um PDF não
+ * interrompe os demais itens do lote.
+ *
+ * Cada item passa pela admissão (orçamento de memória e pool de CPU), como
+ * uma requisição individual; o item espera a sua vez em vez de ser recusado.
+ */
+@Service
+public class PdfBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfBatchService.class);
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private PdfAdmissionControl admission;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int maxItems;
+
+    public PdfBatchService(@Value("${pdf.batch.parallelism:0}") int parallelism,
+                           @Value("${pdf.batch.max-items:500}") int maxItems) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.maxItems    = maxItems;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, "pdf-batch-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        logger.info("Batch de PDFs com paralelismo {} (máx. {} itens por lote)", this.parallelism, maxItems);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getParallelism() { return parallelism; }
+
+    // =========================
+    // LOTES
+    // =========================
+
+    public BatchResult<PrepareResponse> prepararLote(List<PrepareItem> itens) throws ValidationException {
+        return run(itens, item -> pdfService.prepararPdf(item.caminhoArquivo(), item.metadata()),
+                PrepareItem::caminhoArquivo, item -> sizeOf(item.caminhoArquivo()));
+    }
+
+    public BatchResult<String> finalizarLote(List<FinalizeItem> itens) throws ValidationException {
+        return run(itens, item -> pdfService.finalizarPdf(
+                        item.caminhoArquivo(), item.assinaturaBase64(), item.metadata()),
+                FinalizeItem::caminhoArquivo, item -> PdfAdmissionControl.FINALIZE_BYTES);
+    }
+
+    private <I, R> BatchResult<R> run(List<I> itens, BatchTask<I, R> task,
+                                      java.util.function.Function<I, String> pathOf,
+                                      java.util.function.ToLongFunction<I> weightOf)
+            throws ValidationException {
+        if (itens == null || itens.isEmpty())
+            throw new ValidationException("Lote vazio");
+        if (itens.size() > maxItems)
+            throw new ValidationException("Lote muito grande. Máximo: " + maxItems + " documentos");
+
+        List<Future<BatchItemResult<R>>> futures = new ArrayList<>(itens.size());
+        for (int i = 0; i < itens.size(); i++) {
+            final int index = i;
+            final I item    = itens.get(i);
+            final String path = pathOf.apply(item);
+            futures.add(executor.submit(() -> execute(index, path,
+                    () -> admission.executeWaiting(weightOf.applyAsLong(item), () -> task.apply(item)))));
+        }
+
+        List<BatchItemResult<R>> results = new ArrayList<>(itens.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Lote interrompido", e);
+            } catch (ExecutionException e) {
+                // execute() já converte falhas em resultado; só chega aqui em erro inesperado
+                results.add(BatchItemResult.failure(i, pathOf.apply(itens.get(i)),
+                        "Internal error", "Falha inesperada no processamento"));
+            }
+        }
+        return new BatchResult<>(results);
+    }
+
+    private <R> BatchItemResult<R> execute(int index, String caminhoArquivo, Callable<R> call) {
+        try {
+            return BatchItemResult.success(index, caminhoArquivo, call.call());
+
+        } catch (ConflictException e) {
+            logger.warn("Lote item {}: conflict: {}", index, e.getMessage());
+            return BatchItemResult.failure(index, caminhoArquivo, "Conflict", e.getMessage());
+
+        } catch (ValidationException e) {
+            logger.warn("Lote item {}: validation error: {}", index, e.getMessage());
+            return BatchItemResult.failure(index, caminhoArquivo, "Validation error", e.getMessage());
+
+        } catch (FileNotFoundException e) {
+            logger.warn("Lote item {}: PDF not found: {}", index, e.getMessage());
+            return BatchItemResult.failure(index, caminhoArquivo, "Not found", e.getMessage());
+
+        } catch (SecurityException e) {
+            logger.error("Lote item {}: security violation: {}", index, e.getMessage());
+            return BatchItemResult.failure(index, caminhoArquivo, "Security error", "Access denied");
+
+        } catch (OverloadedException e) {
+            logger.warn("Lote item {}: overloaded: {}", index, e.getMessage());
+            return BatchItemResult.failure(index, caminhoArquivo, "Overloaded", e.getMessage());
+
+        } catch (Exception e) {
+            logger.error("Lote item {}: {}", index, e.getMessage(), e);
+            return BatchItemResult.failure(index, caminhoArquivo, "Internal error", "Failed to process PDF");
+        }
+    }
+
+    private static long sizeOf(String caminhoArquivo) {
+        try {
+            return Files.size(Paths.get(caminhoArquivo));
+        } catch (Exception e) {
+            return 0;   // o próprio item falha adiante com "Not found"
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchTask<I, R> {
+        R apply(I item) throws Exception;
+    }
+
+    // =========================
+    // ITENS E RESULTADOS
+    // =========================
+
+    public record PrepareItem(String caminhoArquivo, SignatureMetadata metadata) {}
+
+    public record FinalizeItem(String caminhoArquivo, String assinaturaBase64,
+                               SignatureMetadata metadata) {}
+
+    public static class BatchItemResult<R> {
+        private final int     index;
+        private final String  caminhoArquivo;
+        private final boolean success;
+        private final R       data;
+        private final String  errorType;
+        private final String  errorMessage;
+
+        private BatchItemResult(int index, String caminhoArquivo, boolean success,
+                                R data, String errorType, String errorMessage) {
+            this.index          = index;
+            this.caminhoArquivo = caminhoArquivo;
+            this.success        = success;
+            this.data           = data;
+            this.errorType      = errorType;
+            this.errorMessage   = errorMessage;
+        }
+
+        static <R> BatchItemResult<R> success(int index, String caminhoArquivo, R data) {
+            return new BatchItemResult<>(index, caminhoArquivo, true, data, null, null);
+        }
+
+        static <R> BatchItemResult<R> failure(int index, String caminhoArquivo,
+                                              String type, String message) {
+            return new BatchItemResult<>(index, caminhoArquivo, false, null, type, message);
+        }
+
+        public int     getIndex()          { return index; }
+        public String  getCaminhoArquivo() { return caminhoArquivo; }
+        public boolean isSuccess()         { return success; }
+        public R       getData()           { return data; }
+        public String  getErrorType()      { return errorType; }
+        public String  getErrorMessage()   { return errorMessage; }
+    }
+
+    public static class BatchResult<R> {
+        private final int total;
+        private final int sucessos;
+        private final int falhas;
+        private final List<BatchItemResult<R>> itens;
+
+        BatchResult(List<BatchItemResult<R>> itens) {
+            this.itens    = itens;
+            this.total    = itens.size();
+            this.sucessos = (int) itens.stream().filter(BatchItemResult::isSuccess).count();
+            this.falhas   = total - sucessos;
+        }
+
+        public int getTotal()                      { return total; }
+        public int getSucessos()                   { return sucessos; }
+        public int getFalhas()                     { return falhas; }
+        public List<BatchItemResult<R>> getItens() { return itens; }
+    }
+}
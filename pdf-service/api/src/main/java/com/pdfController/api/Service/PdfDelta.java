@@ -0,0 +1,130 @@
+package com.pdfController.api.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Diferença entre duas revisões de um PDF, para quem já tem a anterior.
+ *
+ * O preparar só anexa bytes ao PDF de entrada (a 1ª assinatura reescreve
+ * o arquivo — aí o delta é marcado {@code full}, sem bytes, e o cliente
+ * baixa a revisão inteira à parte) e o finalizar só troca a janela do
+ * /Contents, com o mesmo tamanho. O cliente confere {@code baseSha256},
+ * ajusta o tamanho para {@code resultLength}, aplica os patches e pode
+ * conferir {@code resultSha256}.
+ */
+public final class PdfDelta {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private PdfDelta() {}
+
+    public record Patch(long offset, String dataBase64) {}
+
+    public record Delta(String baseSha256, long baseLength,
+                        String resultSha256, long resultLength,
+                        boolean full, List<Patch> patches) {}
+
+    /**
+     * Delta de uma revisão que anexa bytes à base. Se {@code result} não
+     * começar com {@code base}, devolve só hashes e tamanhos, marcado
+     * {@code full} — o arquivo inteiro não vai para o heap nem para o JSON.
+     */
+    public static Delta append(Path base, Path result) throws IOException {
+        long baseLength   = Files.size(base);
+        long resultLength = Files.size(result);
+
+        if (resultLength < baseLength || !startsWith(result, base, baseLength))
+            return new Delta(sha256(base), baseLength, sha256(result), resultLength, true, List.of());
+
+        if (resultLength - baseLength > Integer.MAX_VALUE - 8)
+            throw new IOException("Delta grande demais para uma resposta");
+
+        byte[] appended = new byte[(int) (resultLength - baseLength)];
+        try (FileChannel channel = FileChannel.open(result, StandardOpenOption.READ)) {
+            readFully(channel, baseLength, appended);
+        }
+
+        return new Delta(sha256(base), baseLength, sha256(result), resultLength, false,
+                List.of(new Patch(baseLength, Base64.getEncoder().encodeToString(appended))));
+    }
+
+    /**
+     * Delta de uma revisão do mesmo tamanho que só difere dentro de
+     * [{@code from}, {@code to}) — o patch cobre do primeiro ao último
+     * byte diferente, não a janela inteira.
+     */
+    public static Delta patch(Path base, Path result, long from, long to) throws IOException {
+        long length = Files.size(result);
+        if (Files.size(base) != length || from < 0 || to > length || from > to)
+            throw new IOException("Revisões incompatíveis para patch");
+
+        byte[] before = new byte[(int) (to - from)];
+        byte[] after  = new byte[before.length];
+        try (FileChannel b = FileChannel.open(base, StandardOpenOption.READ);
+             FileChannel r = FileChannel.open(result, StandardOpenOption.READ)) {
+            readFully(b, from, before);
+            readFully(r, from, after);
+        }
+
+        int first = 0;
+        while (first < after.length && before[first] == after[first]) first++;
+        int last = after.length;
+        while (last > first && before[last - 1] == after[last - 1]) last--;
+
+        List<Patch> patches = first == last ? List.of() : List.of(new Patch(from + first,
+                Base64.getEncoder().encodeToString(Arrays.copyOfRange(after, first, last))));
+
+        return new Delta(sha256(base), length, sha256(result), length, false, patches);
+    }
+
+    private static boolean startsWith(Path file, Path prefix, long prefixLength) throws IOException {
+        byte[] a = new byte[BUFFER_SIZE];
+        byte[] b = new byte[BUFFER_SIZE];
+        try (InputStream inFile = Files.newInputStream(file);
+             InputStream inPrefix = Files.newInputStream(prefix)) {
+            long remaining = prefixLength;
+            while (remaining > 0) {
+                int n = (int) Math.min(BUFFER_SIZE, remaining);
+                if (inFile.readNBytes(a, 0, n) != n || inPrefix.readNBytes(b, 0, n) != n) return false;
+                if (!Arrays.equals(a, 0, n, b, 0, n)) return false;
+                remaining -= n;
+            }
+        }
+        return true;
+    }
+
+    private static void readFully(FileChannel channel, long position, byte[] target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(target);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) throw new IOException("Fim de arquivo inesperado");
+        }
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,343 @@
+package com.pdfController.api.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pdfController.api.Service.PdfAdmissionControl.OverloadedException;
+import com.pdfController.api.Service.PdfService.ConflictException;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import com.pdfController.api.Service.PdfService.ValidationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Jobs assíncronos de preparar/verificar.
+ *
+ * O cliente recebe o ID do job na hora e acompanha por polling
+ * (GET /jobs/{id}) ou por callback HTTP quando o job termina. Os jobs rodam
+ * num pool próprio alimentado por uma fila limitada com prioridade — maior
+ * prioridade primeiro, ordem de chegada no empate. Fila cheia é recusada
+ * com OverloadedException (429), como no controle de admissão; o limite é
+ * uma reserva de vaga (semáforo) feita antes do enfileiramento. Cada job
+ * roda sob o controle de admissão, esperando a sua vez no orçamento de
+ * memória e no pool de CPU.
+ *
+ * Jobs terminados ficam consultáveis até o TTL, limitados a
+ * pdf.jobs.max-finished (os mais antigos saem primeiro); callbacks só vão
+ * para hosts da lista pdf.jobs.callback.allowed-hosts (por padrão, loopback).
+ */
+@Service
+public class PdfJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfJobService.class);
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PdfAdmissionControl admission;
+
+    public enum JobType   { PREPARE, VERIFY }
+    public enum JobStatus { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong       sequence = new AtomicLong();
+
+    /** IDs dos jobs terminados, na ordem em que terminaram. */
+    private final Deque<String>    finished = new ArrayDeque<>();
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore          queueSlots;
+    private final Duration           ttl;
+    private final int                maxFinished;
+    private final long               retryAfterSeconds;
+    private final Set<String>        callbackHosts;
+    private final HttpClient         httpClient;
+    private final Duration           callbackTimeout;
+
+    public PdfJobService(@Value("${pdf.jobs.workers:0}") int workers,
+                         @Value("${pdf.jobs.queue-capacity:1000}") int queueCapacity,
+                         @Value("${pdf.jobs.ttl:PT1H}") Duration ttl,
+                         @Value("${pdf.jobs.max-finished:10000}") int maxFinished,
+                         @Value("${pdf.admission.retry-after:PT2S}") Duration retryAfter,
+                         @Value("${pdf.jobs.callback.allowed-hosts:localhost,127.0.0.1,::1}") List<String> callbackHosts,
+                         @Value("${pdf.jobs.callback.timeout:PT10S}") Duration callbackTimeout,
+                         MeterRegistry registry) {
+        int threads = workers > 0 ? workers : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueSlots        = new Semaphore(queueCapacity);
+        this.ttl               = ttl;
+        this.maxFinished       = Math.max(1, maxFinished);
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.callbackHosts     = new HashSet<>();
+        callbackHosts.forEach(h -> this.callbackHosts.add(h.trim().toLowerCase(Locale.ROOT)));
+        this.callbackTimeout   = callbackTimeout;
+        this.httpClient        = HttpClient.newBuilder().connectTimeout(callbackTimeout).build();
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "pdf-job-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("pdf.jobs.queued", executor, e -> e.getQueue().size())
+                .description("Jobs aguardando execução")
+                .register(registry);
+        Gauge.builder("pdf.jobs.stored", jobs, Map::size)
+                .description("Jobs consultáveis (em andamento e terminados)")
+                .register(registry);
+
+        logger.info("Jobs assíncronos com {} workers (fila máx. {})", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // =========================
+    // SUBMISSÃO / CONSULTA
+    // =========================
+
+    public JobView submitPrepare(String caminhoArquivo, SignatureMetadata metadata,
+                                 int priority, String callbackUrl) throws Exception {
+        return submit(JobType.PREPARE, caminhoArquivo, priority, callbackUrl,
+                () -> admission.executeWaiting(sizeOf(caminhoArquivo),
+                        () -> pdfService.prepararPdf(caminhoArquivo, metadata)));
+    }
+
+    public JobView submitVerify(String caminhoArquivo, int priority, String callbackUrl) throws Exception {
+        return submit(JobType.VERIFY, caminhoArquivo, priority, callbackUrl,
+                () -> admission.executeWaiting(sizeOf(caminhoArquivo),
+                        () -> pdfService.verificarAssinaturas(caminhoArquivo)));
+    }
+
+    public Optional<JobView> get(String jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? Optional.empty() : Optional.of(job.view());
+    }
+
+    private JobView submit(JobType type, String caminhoArquivo, int priority, String callbackUrl,
+                           Callable<Object> work) throws ValidationException, OverloadedException {
+        URI callback = callbackUrl == null || callbackUrl.isBlank() ? null : validateCallback(callbackUrl);
+
+        // A vaga é reservada antes de enfileirar e devolvida quando o job sai
+        // da fila — a PriorityBlockingQueue em si não tem limite
+        if (!queueSlots.tryAcquire())
+            throw new OverloadedException("Fila de jobs cheia", retryAfterSeconds);
+
+        Job job = new Job(UUID.randomUUID().toString(), type, caminhoArquivo, priority, callback, work);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(job);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            queueSlots.release();
+            throw e;
+        }
+        logger.debug("Job enfileirado id={} type={} priority={}", job.id, type, priority);
+        return job.view();
+    }
+
+    private static long sizeOf(String caminhoArquivo) {
+        try {
+            return Files.size(Paths.get(caminhoArquivo));
+        } catch (Exception e) {
+            return 0;   // o job falha adiante com "Not found"
+        }
+    }
+
+    private URI validateCallback(String callbackUrl) throws ValidationException {
+        URI uri;
+        try {
+            uri = URI.create(callbackUrl.trim());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("URL de callback inválida");
+        }
+        String scheme = uri.getScheme();
+        if (!"http".equalsIgnoreCase(scheme) && !"https".equalsIgnoreCase(scheme))
+            throw new ValidationException("Callback deve usar http ou https");
+        String host = uri.getHost();
+        if (host == null) throw new ValidationException("URL de callback inválida");
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.startsWith("[") && host.endsWith("]")) host = host.substring(1, host.length() - 1);
+        if (!callbackHosts.contains(host))
+            throw new ValidationException("Host de callback não permitido: " + host);
+        return uri;
+    }
+
+    // =========================
+    // EXECUÇÃO
+    // =========================
+
+    private final class Job implements Runnable, Comparable<Job> {
+        final String   id;
+        final JobType  type;
+        final String   caminhoArquivo;
+        final int      priority;
+        final long     seq = sequence.incrementAndGet();
+        final URI      callback;
+        final Callable<Object> work;
+        final long     createdAt = System.currentTimeMillis();
+
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile long      startedAt;
+        volatile long      finishedAt;
+        volatile Object    result;
+        volatile String    errorType;
+        volatile String    errorMessage;
+
+        Job(String id, JobType type, String caminhoArquivo, int priority, URI callback, Callable<Object> work) {
+            this.id             = id;
+            this.type           = type;
+            this.caminhoArquivo = caminhoArquivo;
+            this.priority       = priority;
+            this.callback       = callback;
+            this.work           = work;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+
+        @Override
+        public void run() {
+            queueSlots.release();
+            status    = JobStatus.RUNNING;
+            startedAt = System.currentTimeMillis();
+            try {
+                result = work.call();
+                status = JobStatus.SUCCEEDED;
+
+            } catch (ConflictException e) {
+                fail("Conflict", e.getMessage());
+            } catch (ValidationException e) {
+                fail("Validation error", e.getMessage());
+            } catch (FileNotFoundException e) {
+                fail("Not found", e.getMessage());
+            } catch (SecurityException e) {
+                fail("Security error", "Access denied");
+            } catch (OverloadedException e) {
+                fail("Overloaded", e.getMessage());
+            } catch (Exception e) {
+                logger.error("Job {} falhou: {}", id, e.getMessage(), e);
+                fail("Internal error", "Falha no processamento");
+            } finally {
+                finishedAt = System.currentTimeMillis();
+                retain(this);
+            }
+            logger.info("Job concluído id={} type={} status={} queuedMs={} runMs={}",
+                    id, type, status, startedAt - createdAt, finishedAt - startedAt);
+
+            if (callback != null) notifyCallback(this);
+        }
+
+        private void fail(String type, String message) {
+            errorType    = type;
+            errorMessage = message;
+            status       = JobStatus.FAILED;
+        }
+
+        JobView view() {
+            return new JobView(id, type, status, caminhoArquivo, priority, createdAt,
+                    startedAt == 0 ? null : startedAt, finishedAt == 0 ? null : finishedAt,
+                    result, errorType, errorMessage);
+        }
+    }
+
+    private void notifyCallback(Job job) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(job.view());
+            HttpRequest request = HttpRequest.newBuilder(job.callback)
+                    .timeout(callbackTimeout)
+                    .header("Content-Type", "application/json")
+                    .header("X-PQC-Job", job.id)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        if (error != null)
+                            logger.warn("Callback do job {} falhou: {}", job.id, error.getMessage());
+                        else if (response.statusCode() >= 300)
+                            logger.warn("Callback do job {} respondeu HTTP {}", job.id, response.statusCode());
+                    });
+        } catch (Exception e) {
+            logger.warn("Callback do job {} não enviado: {}", job.id, e.getMessage());
+        }
+    }
+
+    /**
+     * Registra um job terminado e descarta os mais antigos além do limite,
+     * para que resultados guardados não cresçam sem fim dentro do TTL.
+     */
+    private void retain(Job job) {
+        int evicted = 0;
+        synchronized (finished) {
+            finished.addLast(job.id);
+            while (finished.size() > maxFinished) {
+                jobs.remove(finished.pollFirst());
+                evicted++;
+            }
+        }
+        if (evicted > 0) logger.debug("Limite de jobs terminados: {} jobs mais antigos removidos", evicted);
+    }
+
+    /**
+     * Remove jobs terminados há mais que o TTL.
+     */
+    @Scheduled(fixedDelayString = "${pdf.session.cleanup-interval:PT5M}",
+               initialDelayString = "${pdf.session.cleanup-interval:PT5M}")
+    public void cleanup() {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int removed = 0;
+        synchronized (finished) {
+            // Ordem de término: para no primeiro job ainda dentro do TTL
+            while (!finished.isEmpty()) {
+                Job job = jobs.get(finished.peekFirst());
+                if (job != null && job.finishedAt >= cutoff) break;
+                finished.pollFirst();
+                if (job != null) {
+                    jobs.remove(job.id);
+                    removed++;
+                }
+            }
+        }
+        if (removed > 0) logger.info("Limpeza de jobs: {} jobs expirados removidos", removed);
+    }
+
+    // =========================
+    // DTO
+    // =========================
+
+    /**
+     * Estado de um job; {@code result} é o PrepareResponse (PREPARE) ou a
+     * lista de SignatureInfo (VERIFY) quando SUCCEEDED.
+     */
+    public record JobView(String jobId, JobType type, JobStatus status, String caminhoArquivo,
+                          int priority, long createdAt, Long startedAt, Long finishedAt,
+                          Object result, String errorType, String errorMessage) {}
+}
@@ -0,0 +1,191 @@
+package com.pdfController.api.Service;
+
+import io.micrometer.core.instrument.*;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Métricas de preparar/finalizar/verificar, publicadas no Actuator
+ * (/actuator/metrics e /actuator/prometheus).
+ *
+ * <ul>
+ *   <li>{@code pdf.operation} — duração total, por operação e resultado</li>
+ *   <li>{@code pdf.phase} — duração de cada fase (load, dss_placeholder, hash, write...)</li>
+ *   <li>{@code pdf.document.size} / {@code pdf.bytes.written} — bytes lidos e gravados</li>
+ *   <li>{@code pdf.signature.index} — posição da assinatura preparada (1..10)</li>
+ *   <li>{@code pdf.inflight} — operações em andamento</li>
+ *   <li>{@code pdf.temp.files} / {@code pdf.temp.bytes} — temporários de trabalho abertos</li>
+ *   <li>{@code pdf.sessions.pending} e {@code pdf.verify.cache.*}</li>
+ * </ul>
+ *
+ * Os histogramas de percentis são ligados em application.properties
+ * (management.metrics.distribution.*).
+ */
+@Component
+public class PdfMetrics {
+
+    public static final String PREPARE  = "prepare";
+    public static final String FINALIZE = "finalize";
+    public static final String VERIFY   = "verify";
+
+    private final MeterRegistry registry;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Timer>         phases   = new ConcurrentHashMap<>();
+
+    private final AtomicInteger tempFiles = new AtomicInteger();
+    private final AtomicLong    tempBytes = new AtomicLong();
+
+    public PdfMetrics(MeterRegistry registry, PreparedSessionStore sessionStore,
+                      VerificationCache verificationCache) {
+        this.registry = registry;
+
+        for (String operation : new String[]{PREPARE, FINALIZE, VERIFY}) {
+            AtomicInteger counter = new AtomicInteger();
+            inFlight.put(operation, counter);
+            Gauge.builder("pdf.inflight", counter, AtomicInteger::get)
+                    .description("Operações em andamento")
+                    .tag("operation", operation)
+                    .register(registry);
+        }
+
+        Gauge.builder("pdf.temp.files", tempFiles, AtomicInteger::get)
+                .description("Arquivos temporários de trabalho abertos")
+                .register(registry);
+        Gauge.builder("pdf.temp.bytes", tempBytes, AtomicLong::get)
+                .description("Bytes em arquivos temporários de trabalho")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("pdf.sessions.pending", sessionStore, PreparedSessionStore::size)
+                .description("Preparações aguardando /finalizar")
+                .register(registry);
+
+        bindVerificationCache(verificationCache);
+    }
+
+    private void bindVerificationCache(VerificationCache cache) {
+        FunctionCounter.builder("pdf.verify.cache.hits", cache, c -> c.getStats().hits()).register(registry);
+        FunctionCounter.builder("pdf.verify.cache.misses", cache, c -> c.getStats().misses()).register(registry);
+        FunctionCounter.builder("pdf.verify.cache.evictions", cache, c -> c.getStats().evictions()).register(registry);
+        Gauge.builder("pdf.verify.cache.entries", cache, c -> c.getStats().entries()).register(registry);
+        Gauge.builder("pdf.verify.cache.bytes", cache, c -> c.getStats().bytes())
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    // =========================
+    // OPERAÇÕES E FASES
+    // =========================
+
+    @FunctionalInterface
+    public interface PhaseBody<T> {
+        T run() throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface PhaseStep {
+        void run() throws Exception;
+    }
+
+    /**
+     * Início de uma operação: conta como em andamento até o close(), que
+     * registra a duração total com outcome=success ou error.
+     */
+    public Operation start(String operation) {
+        return new Operation(operation);
+    }
+
+    public <T> T phase(String operation, String phase, PhaseBody<T> body) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return body.run();
+        } finally {
+            phaseTimer(operation, phase).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void phase(String operation, String phase, PhaseStep step) throws Exception {
+        phase(operation, phase, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    private Timer phaseTimer(String operation, String phase) {
+        return phases.computeIfAbsent(operation + '/' + phase, k -> Timer.builder("pdf.phase")
+                .description("Duração de cada fase de preparar/finalizar/verificar")
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(registry));
+    }
+
+    public final class Operation implements AutoCloseable {
+        private final String operation;
+        private final long   start = System.nanoTime();
+        private boolean      success;
+
+        private Operation(String operation) {
+            this.operation = operation;
+            inFlight.get(operation).incrementAndGet();
+        }
+
+        public void success() { success = true; }
+
+        @Override
+        public void close() {
+            inFlight.get(operation).decrementAndGet();
+            Timer.builder("pdf.operation")
+                    .description("Duração total de preparar/finalizar/verificar")
+                    .tag("operation", operation)
+                    .tag("outcome", success ? "success" : "error")
+                    .register(registry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // =========================
+    // TAMANHOS
+    // =========================
+
+    public void documentSize(String operation, long bytes) {
+        summary("pdf.document.size", "Tamanho do PDF de entrada", operation).record(bytes);
+    }
+
+    public void bytesWritten(String operation, long bytes) {
+        summary("pdf.bytes.written", "Bytes gravados em disco", operation).record(bytes);
+    }
+
+    public void signatureIndex(int index) {
+        DistributionSummary.builder("pdf.signature.index")
+                .description("Posição da assinatura preparada no documento")
+                .register(registry)
+                .record(index);
+    }
+
+    private DistributionSummary summary(String name, String description, String operation) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit("bytes")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    // =========================
+    // TEMPORÁRIOS
+    // =========================
+
+    public void tempFileCreated(long bytes) {
+        tempFiles.incrementAndGet();
+        tempBytes.addAndGet(bytes);
+    }
+
+    public void tempFileDeleted(long bytes) {
+        tempFiles.decrementAndGet();
+        tempBytes.addAndGet(-bytes);
+    }
+}
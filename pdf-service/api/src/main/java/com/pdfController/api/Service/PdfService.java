@@ -1,5 +1,6 @@
 package com.pdfController.api.Service;
 
+import com.pdfController.api.Service.PublicKeyRegistry.RegisteredKey;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.enumerations.SignatureLevel;
 import eu.europa.esig.dss.enumerations.SignaturePackaging;
@@ -7,38 +8,91 @@ import eu.europa.esig.dss.model.*;
 import eu.europa.esig.dss.pades.PAdESSignatureParameters;
 import eu.europa.esig.dss.pades.SignatureFieldParameters;
 import eu.europa.esig.dss.pades.SignatureImageParameters;
-import eu.europa.esig.dss.pades.signature.PAdESService;
-import eu.europa.esig.dss.spi.validation.CommonCertificateVerifier;
-import eu.europa.esig.dss.pdf.pdfbox.PdfBoxNativeObjectFactory;
 import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDFont;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAppearanceStream;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDSignatureField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.security.MessageDigest;
-import java.text.SimpleDateFormat;
+import java.security.NoSuchAlgorithmException;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
 public class PdfService {
 
+    private static final Logger logger = LoggerFactory.getLogger(PdfService.class);
+
     private static final int MAX_SIGNATURES = 10;
     private static final String PUBLIC_KEY_FIELD_PREFIX = "PQC_PublicKey";
-
-    private static final float PAGE_HEIGHT   = PDRectangle.A4.getHeight();
-    private static final float PAGE_WIDTH    = PDRectangle.A4.getWidth();
-    private static final float MARGIN        = 40f;
-    private static final float FOOTER_HEIGHT = 30f;
-    private static final float HEADER_HEIGHT = 60f;
+    private static final String SIGNATURE_FIELD_PREFIX  = "PQC_Signature";
+    private static final COSName ENVELOPE_SLOTS         = COSName.getPDFName("PQC_Slots");
+
+    static final float PAGE_HEIGHT   = PDRectangle.A4.getHeight();
+    static final float PAGE_WIDTH    = PDRectangle.A4.getWidth();
+    static final float MARGIN        = 40f;
+    static final float FOOTER_HEIGHT = 30f;
+    static final float HEADER_HEIGHT = 60f;
     private static final float USABLE_HEIGHT = PAGE_HEIGHT - MARGIN * 2 - HEADER_HEIGHT - FOOTER_HEIGHT;
     private static final float BLOCK_HEIGHT  = USABLE_HEIGHT / MAX_SIGNATURES;
 
+    @Value("${pdf.signature.envelope-mode:false}")
+    private boolean envelopeMode;
+
+    /** Esquema usado para dimensionar o /Contents quando o cliente não informa o algoritmo. */
+    @Value("${pdf.signature.default-algorithm:ML-DSA-87}")
+    private String defaultAlgorithm;
+
+    private static final DateTimeFormatter DATE_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    @Autowired
+    private PreparedSessionStore sessionStore;
+
+    @Autowired
+    private PublicKeyRegistry keyRegistry;
+
+    @Autowired
+    private MetadataPageTemplate metadataTemplate;
+
+    @Autowired
+    private DssEngine dssEngine;
+
+    @Autowired
+    private PdfMetrics metrics;
+
+    @Autowired
+    private DocumentCoordinator coordinator;
+
+    @Autowired
+    private RevisionStore revisionStore;
+
     // =========================
     // PREPARAR PDF
     // =========================
@@ -46,51 +100,140 @@ public class PdfService {
     public PrepareResponse prepararPdf(String inputPath, SignatureMetadata metadata) throws Exception {
 
         validateInputPath(inputPath);
-        if (metadata != null) validateMetadata(metadata);
+        RegisteredKey signerKey = metadata != null ? validateMetadata(metadata) : null;
 
-        File inputFile = new File(inputPath);
-        int existingSignatures = countExistingSignatures(inputFile);
-        int nextSignatureIndex = existingSignatures + 1;
+        String preparedPath = inputPath.replace(".pdf", "_prepared.pdf");
 
-        if (nextSignatureIndex > MAX_SIGNATURES)
-            throw new ValidationException(
-                    "Limite de " + MAX_SIGNATURES + " assinaturas atingido neste documento.");
+        // Preparações do mesmo documento são serializadas pelo arquivo que
+        // escrevem (_prepared.pdf + sessão); uma idêntica em andamento é reaproveitada
+        String fingerprint = fingerprint(inputPath, metadata);
+        PrepareResponse response = coordinator.exclusive(PdfMetrics.PREPARE, preparedPath, fingerprint,
+                () -> prepare(inputPath, preparedPath, metadata, signerKey, fingerprint));
 
-        String preparedPath = inputPath.replace(".pdf", "_prepared.pdf");
+        // A entrada vira a revisão-pai (o assinado depois é guardado só como
+        // delta); fora do lock, para não segurar o documento durante o hash
+        storeRevision(Paths.get(inputPath));
+        return response;
+    }
 
-        log("PREPARANDO PDF | assinatura #" + nextSignatureIndex);
-        log("Input : " + inputPath + " (" + inputFile.length() + " bytes)");
-        log("Output: " + preparedPath);
+    private PrepareResponse prepare(String inputPath, String preparedPath, SignatureMetadata metadata,
+                                    RegisteredKey signerKey, String fingerprint) throws Exception {
+        // Já sob o lock do documento: outra preparação ainda aguardando o
+        // /finalizar teria o _prepared.pdf e a sessão sobrescritos, e o
+        // cliente dela assinaria bytes que nunca recebeu
+        var pending = sessionStore.find(preparedPath);
+        if (pending.isPresent() && !fingerprint.equals(pending.get().fingerprint()))
+            throw new ConflictException("Documento com outra preparação pendente de /finalizar. "
+                    + "Tente novamente após a finalização ou a expiração da sessão.");
+
+        // O documento é parseado UMA única vez: o mesmo PDDocument atravessa
+        // contagem, injeção da chave, página de metadados e save; o DSS recebe
+        // o arquivo salvo e devolve os bytes já em memória para o hash.
+        try (PdfMetrics.Operation operation = metrics.start(PdfMetrics.PREPARE);
+             PrepareContext ctx = metrics.phase(PdfMetrics.PREPARE, "load",
+                     () -> openPrepareContext(new File(inputPath), metadata, signerKey))) {
+
+            logger.debug("Preparando PDF index={} input={} bytes={} output={}",
+                    ctx.signatureIndex, inputPath, ctx.inputFile.length(), preparedPath);
+
+            metrics.documentSize(PdfMetrics.PREPARE, ctx.inputFile.length());
+            metrics.signatureIndex(ctx.signatureIndex);
+
+            metrics.phase(PdfMetrics.PREPARE, "document_changes", () -> applyDocumentChanges(ctx));
+            metrics.phase(PdfMetrics.PREPARE, "dss_placeholder", () -> applyPlaceholderSignature(ctx));
+            computeByteRangeHash(ctx);
+
+            metrics.phase(PdfMetrics.PREPARE, "write", () -> {
+                try (OutputStream os = new FileOutputStream(preparedPath)) {
+                    os.write(ctx.preparedBytes);
+                }
+            });
+            metrics.bytesWritten(PdfMetrics.PREPARE, ctx.preparedBytes.length);
+
+            metrics.phase(PdfMetrics.PREPARE, "session", () -> saveSession(preparedPath, ctx, fingerprint));
+
+            logger.info("PDF preparado index={} output={} bytes={} revisionDoc={} revisionSig={}",
+                    ctx.signatureIndex, preparedPath, ctx.preparedBytes.length,
+                    ctx.documentRevisionBytes, ctx.signatureRevisionBytes);
+
+            operation.success();
+            return new PrepareResponse(
+                    ctx.hashToSign,
+                    Base64.getEncoder().encodeToString(ctx.hashToSign),
+                    preparedPath,
+                    ctx.inputFile.getName(),
+                    metadata,
+                    ctx.signatureIndex,
+                    ctx.documentRevisionBytes,
+                    ctx.signatureRevisionBytes,
+                    ctx.scheme
+            );
+        }
+    }
+
+    // =========================
+    // PIPELINE DE PREPARAÇÃO
+    // Cada etapa recebe o PrepareContext e consome o estado já parseado
+    // pela etapa anterior, em vez de recarregar o PDF do disco.
+    // =========================
+
+    private PrepareContext openPrepareContext(File inputFile, SignatureMetadata metadata,
+                                              RegisteredKey signerKey) throws Exception {
+        PDDocument doc = Loader.loadPDF(inputFile);
+        try {
+            int existingSignatures = doc.getSignatureDictionaries().size();
+            int nextSignatureIndex = existingSignatures + 1;
 
-        Path tempPath = Files.createTempFile("pdf_sign_", ".pdf");
+            if (nextSignatureIndex > MAX_SIGNATURES)
+                throw new ValidationException(
+                        "Limite de " + MAX_SIGNATURES + " assinaturas atingido neste documento.");
+
+            boolean envelope = nextSignatureIndex == 1 ? envelopeMode : hasEnvelope(doc);
+
+            return new PrepareContext(inputFile, metadata, signerKey, doc, nextSignatureIndex, envelope, metrics);
+        } catch (Exception e) {
+            doc.close();
+            throw e;
+        }
+    }
+
+    private void applyDocumentChanges(PrepareContext ctx) throws IOException {
+        PDDocument doc           = ctx.document;
+        SignatureMetadata metadata = ctx.metadata;
+        int index                = ctx.signatureIndex;
+
+        ctx.tempPath = Files.createTempFile("pdf_sign_", ".pdf");
+
+        // Injeta chave pública da nova assinatura — ou só a impressão digital
+        // (no envelope, o campo reservado já existe e só recebe o valor)
+        String publicKeyField = publicKeyFieldValue(metadata, ctx.signerKey);
+        if (publicKeyField != null) {
+            injectPublicKeyIntoDoc(doc, publicKeyField, index);
+            logger.debug("Chave pública injetada index={} reference={}",
+                    index, PublicKeyRegistry.isReference(publicKeyField));
+        }
 
-        if (nextSignatureIndex == 1) {
+        if (index == 1) {
             // ══════════════════════════════════════════════════════════════
             // PRIMEIRA ASSINATURA:
             // Cria a página de metadados completa com TODOS os 10 blocos
-            // reservados (vazios), injeta a chave pública da assinatura #1,
-            // e salva o PDF com save() normal (pode reescrever, não há
-            // assinaturas anteriores para proteger).
+            // reservados (vazios) e salva o PDF com save() normal (pode
+            // reescrever, não há assinaturas anteriores para proteger).
             // ══════════════════════════════════════════════════════════════
-            log("Primeira assinatura — criando página de metadados completa com " + MAX_SIGNATURES + " blocos.");
 
-            try (PDDocument doc = Loader.loadPDF(inputFile)) {
-
-                // Injeta chave pública da assinatura #1
-                if (metadata != null && metadata.getPublicKey() != null
-                        && !metadata.getPublicKey().isBlank()) {
-                    injectPublicKeyIntoDoc(doc, metadata.getPublicKey(), 1);
-                    log("Chave pública #1 injetada.");
-                }
-
-                // Cria a página de metadados com todos os 10 blocos pré-desenhados
-                // (os blocos 2..10 ficam vazios/invisíveis até serem preenchidos)
+            // Os blocos 2..10 ficam vazios/invisíveis até serem preenchidos
+            if (ctx.envelope) {
+                // Envelope: o bloco #1 vai para o seu slot, como os demais
+                addFullMetadataPageWithAllBlocks(doc, metadata, 0);
+                provisionEnvelope(doc, doc.getPage(doc.getNumberOfPages() - 1));
+                fillSignatureBlockInPage(doc, metadata, 1);
+            } else {
                 addFullMetadataPageWithAllBlocks(doc, metadata, 1);
-                log("Página de metadados com " + MAX_SIGNATURES + " blocos criada.");
+            }
+            logger.debug("Página de metadados criada blocks={} envelope={}", MAX_SIGNATURES, ctx.envelope);
 
-                try (OutputStream os = new FileOutputStream(tempPath.toFile())) {
-                    doc.save(os);
-                }
+            try (OutputStream os = new FileOutputStream(ctx.tempPath.toFile())) {
+                doc.save(os);
             }
 
         } else {
@@ -100,96 +243,89 @@ public class PdfService {
             // visual e injeta a chave pública via saveIncremental, que
             // APPENDA ao final sem tocar nos bytes anteriores.
             // As assinaturas anteriores continuam válidas.
+            // O documento foi carregado direto do input: o saveIncremental
+            // relê os bytes originais da mesma fonte, sem cópia temporária.
             // ══════════════════════════════════════════════════════════════
-            log("Assinatura #" + nextSignatureIndex + " — salvando incrementalmente.");
-
-            // PDFBox requer arquivo em disco para saveIncremental.
-            // Salvamos o PDF original em um temp file e carregamos dele.
-            Path incrementalTemp = Files.createTempFile("pdf_inc_", ".pdf");
-            Files.copy(inputFile.toPath(), incrementalTemp, StandardCopyOption.REPLACE_EXISTING);
-
-            try (PDDocument doc = Loader.loadPDF(incrementalTemp.toFile())) {
-
-                // Injeta chave pública da nova assinatura
-                if (metadata != null && metadata.getPublicKey() != null
-                        && !metadata.getPublicKey().isBlank()) {
-                    injectPublicKeyIntoDoc(doc, metadata.getPublicKey(), nextSignatureIndex);
-                    log("Chave pública #" + nextSignatureIndex + " injetada.");
-                }
-
-                // Preenche o bloco visual da nova assinatura na página de metadados
-                fillSignatureBlockInPage(doc, metadata, nextSignatureIndex);
-                log("Bloco #" + nextSignatureIndex + " preenchido na página de metadados.");
-
-                // ✅ saveIncremental: appenda ao final sem tocar nos bytes anteriores
-                try (OutputStream incrementalOut = new FileOutputStream(tempPath.toFile())) {
-                    doc.saveIncremental(incrementalOut);
-                }
+            fillSignatureBlockInPage(doc, metadata, index);
+            logger.debug("Bloco preenchido na página de metadados index={}", index);
 
-                log("Salvo incrementalmente: " + tempPath.toFile().length() + " bytes");
-            } finally {
-                Files.deleteIfExists(incrementalTemp);
+            try (OutputStream incrementalOut = new FileOutputStream(ctx.tempPath.toFile())) {
+                doc.saveIncremental(incrementalOut);
             }
         }
 
-        log("Arquivo temp: " + tempPath.toFile().length() + " bytes");
-
-        // DSS: usar placeholder para obter ByteRange real
-        PAdESSignatureParameters params = buildSignatureParameters(metadata, nextSignatureIndex);
-        DSSDocument dssDoc   = new FileDocument(tempPath.toFile());
-        PAdESService service = buildPAdESService();
+        ctx.trackTempFile();
+        ctx.documentRevisionBytes = Files.size(ctx.tempPath) - ctx.inputFile.length();
+        logger.debug("Revisão do documento salva temp={} revisionDoc={}",
+                ctx.tempPath, ctx.documentRevisionBytes);
+    }
 
-        service.getDataToSign(dssDoc, params); // prepara internamente
+    private void applyPlaceholderSignature(PrepareContext ctx) throws Exception {
+        // DSS: usar placeholder para obter ByteRange real.
+        // signDocument já calcula os dados a assinar internamente — chamar
+        // getDataToSign antes só fazia o DSS parsear o arquivo mais uma vez.
+        ctx.params = buildSignatureParameters(ctx.metadata, ctx.signatureIndex, ctx.envelope);
 
-        SignatureValue placeholderSig = new SignatureValue();
-        placeholderSig.setAlgorithm(params.getSignatureAlgorithm());
-        placeholderSig.setValue(new byte[4627]); // tamanho ML-DSA-87 (maior)
+        // O /Contents reserva exatamente o tamanho da assinatura do esquema.
+        // O valor do placeholder é mínimo: o CMS que o DSS grava ali é
+        // descartado no /finalizar e só precisa caber na reserva.
+        ctx.scheme = resolveScheme(ctx.metadata);
+        ctx.params.setContentSize(ctx.scheme.getSignatureBytes());
 
-        DSSDocument preparedDssDoc = service.signDocument(dssDoc, params, placeholderSig);
+        DSSDocument dssDoc = new FileDocument(ctx.tempPath.toFile());
 
-        ByteArrayOutputStream preparedBaos = new ByteArrayOutputStream();
-        preparedDssDoc.writeTo(preparedBaos);
-        byte[] tempBytes = preparedBaos.toByteArray();
-
-        // Extrai o ByteRange da ÚLTIMA assinatura (a recém-adicionada)
-        int[] byteRange = extractLastByteRangeFromPdf(tempBytes);
+        SignatureValue placeholderSig = new SignatureValue();
+        placeholderSig.setAlgorithm(ctx.params.getSignatureAlgorithm());
+        placeholderSig.setValue(new byte[1]);
 
-        if (byteRange == null)
-            throw new Exception("Não foi possível extrair ByteRange do PDF preparado.");
+        DSSDocument preparedDssDoc = dssEngine.signDocument(dssDoc, ctx.params, placeholderSig);
 
-        log("ByteRange extraído: [" + byteRange[0] + ", " + byteRange[1]
-                + ", " + byteRange[2] + ", " + byteRange[3] + "]");
+        if (preparedDssDoc instanceof InMemoryDocument inMemory) {
+            ctx.preparedBytes = inMemory.getBytes();
+        } else {
+            ByteArrayOutputStream preparedBaos = new ByteArrayOutputStream();
+            preparedDssDoc.writeTo(preparedBaos);
+            ctx.preparedBytes = preparedBaos.toByteArray();
+        }
 
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        baos.write(tempBytes, byteRange[0], byteRange[1]);
-        baos.write(tempBytes, byteRange[2], byteRange[3]);
-        byte[] byteRangeContent = baos.toByteArray();
+        ctx.signatureRevisionBytes = ctx.preparedBytes.length - Files.size(ctx.tempPath);
+        logger.debug("Placeholder do DSS aplicado revisionSig={}", ctx.signatureRevisionBytes);
+    }
 
-        log("ByteRange content: " + byteRangeContent.length + " bytes");
+    /**
+     * Esquema pelo algorithm/parameters da requisição; sem eles, ou se não
+     * forem reconhecidos, o padrão configurado — a reserva só fica maior ou
+     * menor, o preparar não falha por isso.
+     */
+    private SignatureScheme resolveScheme(SignatureMetadata metadata) throws ValidationException {
+        if (metadata != null) {
+            var requested = SignatureScheme.resolve(metadata.getAlgorithm(), metadata.getParameters());
+            if (requested.isPresent()) return requested.get();
+            if (metadata.getAlgorithm() != null || metadata.getParameters() != null)
+                logger.warn("Esquema não reconhecido algorithm={} parameters={}, usando {}",
+                        metadata.getAlgorithm(), metadata.getParameters(), defaultAlgorithm);
+        }
+        return SignatureScheme.lookup(defaultAlgorithm)
+                .orElseThrow(() -> new ValidationException("Algoritmo padrão não suportado: " + defaultAlgorithm));
+    }
 
-        byte[] hashToSign = MessageDigest.getInstance("SHA-256").digest(byteRangeContent);
-        String hashBase64 = Base64.getEncoder().encodeToString(hashToSign);
+    private void computeByteRangeHash(PrepareContext ctx) throws Exception {
+        byte[] tempBytes = ctx.preparedBytes;
 
-        log("Hash SHA-256 (toBeSignedBase64): " + hashBase64);
+        // Extrai o ByteRange da ÚLTIMA assinatura (a recém-adicionada)
+        ByteRangeLocator.Location location = metrics.phase(PdfMetrics.PREPARE, "byterange",
+                () -> extractLastByteRangeFromPdf(tempBytes));
 
-        try (OutputStream os = new FileOutputStream(preparedPath)) {
-            os.write(tempBytes);
-        }
-        Files.delete(tempPath);
+        if (location == null)
+            throw new Exception("Não foi possível extrair ByteRange do PDF preparado.");
 
-        saveParamsCache(preparedPath, params, byteRangeContent, metadata);
+        int[] byteRange = location.byteRange();
 
-        log("PREPARAÇÃO CONCLUÍDA → " + preparedPath
-                + " (" + new File(preparedPath).length() + " bytes)");
+        ctx.byteRange  = byteRange;
+        ctx.hashToSign = metrics.phase(PdfMetrics.PREPARE, "hash",
+                () -> ByteRangeDigest.digest(tempBytes, byteRange));
 
-        return new PrepareResponse(
-                hashToSign,
-                hashBase64,
-                preparedPath,
-                inputFile.getName(),
-                metadata,
-                nextSignatureIndex
-        );
+        logger.debug("Hash do ByteRange calculado covered={}", (long) byteRange[1] + byteRange[3]);
     }
 
     // =========================
@@ -199,75 +335,158 @@ public class PdfService {
     public String finalizarPdf(String preparedPath, String signatureBase64,
                                SignatureMetadata metadata) throws Exception {
 
-        log("FINALIZANDO PDF | " + preparedPath);
+        logger.debug("Finalizando PDF prepared={}", preparedPath);
 
         if (preparedPath == null || preparedPath.isBlank())
             throw new ValidationException("Caminho do arquivo não pode ser vazio");
         if (signatureBase64 == null || signatureBase64.isBlank())
             throw new ValidationException("Assinatura não pode ser vazia");
 
-        byte[] signatureBytes;
-        try {
-            signatureBytes = Base64.getDecoder().decode(signatureBase64);
-            log("Assinatura decodificada: " + signatureBytes.length + " bytes");
-        } catch (IllegalArgumentException e) {
-            throw new ValidationException("Assinatura Base64 inválida");
+        // Mesmo lock do preparar: o _prepared.pdf não muda no meio da finalização
+        String signedPath = coordinator.exclusive(PdfMetrics.FINALIZE, preparedPath,
+                fingerprint(signatureBase64, metadata),
+                () -> finalizePrepared(preparedPath, signatureBase64));
+
+        // Fora do lock: armazenada a revisão, o _prepared fica redundante; o
+        // _signed continua como a versão mais nova até existir uma filha
+        Path signed = Paths.get(signedPath);
+        if (storeRevision(signed)) {
+            revisionStore.retire(Paths.get(preparedPath));
+            revisionStore.retireWhenSuperseded(signed);
         }
+        return signedPath;
+    }
+
+    private String finalizePrepared(String preparedPath, String signatureBase64) throws Exception {
+        try (PdfMetrics.Operation operation = metrics.start(PdfMetrics.FINALIZE)) {
+            byte[] signatureBytes;
+            try {
+                signatureBytes = Base64.getDecoder().decode(signatureBase64);
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException("Assinatura Base64 inválida");
+            }
+
+            Path prepared = Paths.get(preparedPath);
+            ByteRangeLocator.Location location = metrics.phase(PdfMetrics.FINALIZE, "byterange",
+                    () -> resolveContentsWindow(preparedPath, prepared));
+
+            long contentsStart = location.contentsStart();
+
+            checkSignatureSize(preparedPath, signatureBytes.length);
+            byte[] contentsWindow = buildContentsWindow(signatureBytes, location.contentsLength());
 
-        loadParamsCache(preparedPath); // valida que o cache existe
+            String signedPath = preparedPath.replace("_prepared.pdf", "_signed.pdf");
+            if (signedPath.equals(preparedPath))
+                signedPath = preparedPath.replace(".pdf", "_signed.pdf");
 
-        byte[] preparedBytes = Files.readAllBytes(Paths.get(preparedPath));
+            Path signed = Paths.get(signedPath);
+            metrics.phase(PdfMetrics.FINALIZE, "write",
+                    () -> writePatchedCopy(prepared, signed, contentsStart, contentsWindow));
 
-        // Extrai o ByteRange da ÚLTIMA assinatura (a do placeholder)
-        int[] byteRange = extractLastByteRangeFromPdf(preparedBytes);
+            long signedSize = Files.size(signed);
+            metrics.documentSize(PdfMetrics.FINALIZE, signedSize);
+            metrics.bytesWritten(PdfMetrics.FINALIZE, signedSize);
 
-        if (byteRange == null)
-            throw new ValidationException("ByteRange não encontrado no PDF preparado.");
+            logger.info("PDF assinado output={} bytes={} signatureBytes={} window={}",
+                    signedPath, signedSize, signatureBytes.length, location.contentsLength());
 
-        log("ByteRange: [" + byteRange[0] + ", " + byteRange[1]
-                + ", " + byteRange[2] + ", " + byteRange[3] + "]");
+            sessionStore.remove(preparedPath);
+            operation.success();
+            return signedPath;
+        }
+    }
+
+    // =========================
+    // PATCH DO /Contents
+    // O arquivo preparado é copiado por transferTo, apenas a janela do
+    // /Contents é sobrescrita com escrita posicional, e o resultado é
+    // movido atomicamente para o destino. O custo depende do tamanho da
+    // assinatura, não do tamanho do documento.
+    // =========================
 
-        int contentsStart     = byteRange[1];
-        int contentsEnd       = byteRange[2];
-        int contentsFieldSize = contentsEnd - contentsStart;
+    private static final byte[] HEX_DIGITS =
+            "0123456789abcdef".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
 
-        StringBuilder hexSig = new StringBuilder();
-        for (byte b : signatureBytes)
-            hexSig.append(String.format("%02x", b));
-        String hexStr = hexSig.toString();
+    /**
+     * Confere a assinatura contra o esquema reservado no /preparar. Preparações
+     * sem esquema registrado (anteriores a ele) só passam pelo limite da janela.
+     */
+    private void checkSignatureSize(String preparedPath, int signatureLength) throws ValidationException {
+        var scheme = sessionStore.find(preparedPath)
+                .flatMap(s -> SignatureScheme.lookup(s.algorithm()));
+        if (scheme.isEmpty()) return;
+
+        int reserved = scheme.get().getSignatureBytes();
+        if (signatureLength > reserved)
+            throw new ValidationException("Assinatura maior que a reserva de " + scheme.get().getDisplayName()
+                    + ": " + signatureLength + " bytes, reservado: " + reserved);
+    }
 
+    /**
+     * Monta a janela "<hex...000>" com exatamente o tamanho reservado.
+     */
+    static byte[] buildContentsWindow(byte[] signatureBytes, int contentsFieldSize)
+            throws ValidationException {
         int availableHexChars = contentsFieldSize - 2;
+        int hexChars          = signatureBytes.length * 2;
 
-        if (hexStr.length() > availableHexChars)
+        if (hexChars > availableHexChars)
             throw new ValidationException(
-                    "Assinatura muito grande. Hex: " + hexStr.length()
+                    "Assinatura muito grande. Hex: " + hexChars
                             + ", disponível: " + availableHexChars);
 
+        byte[] window = new byte[contentsFieldSize];
+        window[0] = '<';
+        int pos = 1;
+        for (byte b : signatureBytes) {
+            window[pos++] = HEX_DIGITS[(b >> 4) & 0x0f];
+            window[pos++] = HEX_DIGITS[b & 0x0f];
+        }
         // Pad com zeros à direita
-        while (hexStr.length() < availableHexChars)
-            hexStr += "0";
+        Arrays.fill(window, pos, contentsFieldSize - 1, (byte) '0');
+        window[contentsFieldSize - 1] = '>';
+        return window;
+    }
 
-        byte[] signedBytes = Arrays.copyOf(preparedBytes, preparedBytes.length);
-        signedBytes[contentsStart] = '<';
-        byte[] hexBytes = hexStr.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
-        System.arraycopy(hexBytes, 0, signedBytes, contentsStart + 1, hexBytes.length);
-        signedBytes[contentsEnd - 1] = '>';
+    private void writePatchedCopy(Path source, Path target, long windowOffset,
+                                  byte[] window) throws IOException {
+        Path dir = target.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, ".pdf_sign_", ".tmp");
+        long tracked = -1;
 
-        log("Assinatura inserida: " + signatureBytes.length + " bytes → "
-                + hexStr.length() + " hex chars");
+        try {
+            try (FileChannel in  = FileChannel.open(source, StandardOpenOption.READ);
+                 FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
 
-        String signedPath = preparedPath.replace("_prepared.pdf", "_signed.pdf");
-        if (signedPath.equals(preparedPath))
-            signedPath = preparedPath.replace(".pdf", "_signed.pdf");
+                long size = in.size();
+                if (windowOffset + window.length > size)
+                    throw new IOException("Janela do /Contents excede o tamanho do arquivo preparado");
 
-        try (OutputStream os = new FileOutputStream(signedPath)) {
-            os.write(signedBytes);
-        }
+                metrics.tempFileCreated(size);
+                tracked = size;
 
-        log("PDF ASSINADO → " + signedPath + " (" + new File(signedPath).length() + " bytes)");
+                long copied = 0;
+                while (copied < size)
+                    copied += in.transferTo(copied, size - copied, out);
 
-        deleteParamsCache(preparedPath);
-        return signedPath;
+                ByteBuffer buffer = ByteBuffer.wrap(window);
+                long pos = windowOffset;
+                while (buffer.hasRemaining())
+                    pos += out.write(buffer, pos);
+
+                out.force(false);
+            }
+
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+            if (tracked >= 0) metrics.tempFileDeleted(tracked);
+        }
     }
 
     // =========================
@@ -275,18 +494,36 @@ public class PdfService {
     // =========================
 
     public List<SignatureInfo> verificarAssinaturas(String pdfPath) throws Exception {
-        log("VERIFICANDO ASSINATURAS | " + pdfPath);
-
         File file = new File(pdfPath);
         if (!file.exists())
             throw new FileNotFoundException("PDF não encontrado: " + pdfPath);
 
+        // Leitura: sem lock, só coalesce verificações simultâneas do mesmo arquivo
+        return coordinator.shared(PdfMetrics.VERIFY, pdfPath,
+                file.length() + ":" + file.lastModified(), () -> verify(file, pdfPath));
+    }
+
+    private List<SignatureInfo> verify(File file, String pdfPath) throws Exception {
         List<SignatureInfo> result = new ArrayList<>();
-        byte[] pdfBytes = Files.readAllBytes(file.toPath());
 
-        try (PDDocument document = Loader.loadPDF(file)) {
+        // O canal é aberto uma vez e cada ByteRange é lido por posição,
+        // sem carregar o arquivo inteiro num byte[] paralelo ao do PDFBox.
+        try (PdfMetrics.Operation operation = metrics.start(PdfMetrics.VERIFY);
+             PDDocument document = metrics.phase(PdfMetrics.VERIFY, "load", () -> Loader.loadPDF(file));
+             FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            metrics.documentSize(PdfMetrics.VERIFY, fileSize);
+
             var sigs = document.getSignatureDictionaries();
-            log("Assinaturas encontradas: " + sigs.size());
+            logger.debug("Verificando assinaturas path={} bytes={} signatures={}",
+                    pdfPath, fileSize, sigs.size());
+
+            // Todos os ByteRanges são digeridos numa única passada pelo arquivo:
+            // cada assinatura reaproveita o estado do prefixo que divide com as demais.
+            List<int[]> byteRanges = new ArrayList<>(sigs.size());
+            for (var sig : sigs) byteRanges.add(sig.getByteRange());
+            byte[][] digests = metrics.phase(PdfMetrics.VERIFY, "hash",
+                    () -> digestByteRanges(channel, byteRanges));
 
             for (int i = 0; i < sigs.size(); i++) {
                 var sig  = sigs.get(i);
@@ -307,38 +544,23 @@ public class PdfService {
                             byteRange[0] == 0 && byteRange[1] > 0 &&
                                     byteRange[2] > byteRange[1] && byteRange[3] > 0);
 
-                    int end = byteRange[2] + byteRange[3];
-                    if (end > pdfBytes.length) {
-                        log("WARN byterange #" + (i + 1) + ": end=" + end
-                                + " > fileSize=" + pdfBytes.length);
+                    long end = (long) byteRange[2] + byteRange[3];
+                    if (end > fileSize) {
+                        logger.warn("ByteRange além do fim do arquivo index={} end={} fileSize={}",
+                                i + 1, end, fileSize);
                     } else {
                         // ✅ Bytes cobertos por ESTA assinatura (excluindo /Contents)
                         // O PDFBox retorna o ByteRange específico de cada assinatura,
                         // que aponta para os bytes tal como estavam quando foi assinado.
-                        ByteArrayOutputStream byteRangeBaos = new ByteArrayOutputStream();
-                        byteRangeBaos.write(pdfBytes, byteRange[0], byteRange[1]);
-                        byteRangeBaos.write(pdfBytes, byteRange[2], byteRange[3]);
-                        byte[] byteRangeContent = byteRangeBaos.toByteArray();
-
-                        try {
-                            byte[] rawHash = MessageDigest.getInstance("SHA-256")
-                                    .digest(byteRangeContent);
-                            info.setByteRangeHashBase64(Base64.getEncoder().encodeToString(rawHash));
-                        } catch (Exception e) {
-                            log("WARN hash byterange #" + (i + 1) + ": " + e.getMessage());
-                        }
-
-                        // ✅ toBeSignedBase64 = SHA-256(bytesDoByteRange desta assinatura)
-                        try {
-                            byte[] hashToVerify = MessageDigest.getInstance("SHA-256")
-                                    .digest(byteRangeContent);
-                            String toBeSignedBase64 = Base64.getEncoder().encodeToString(hashToVerify);
-                            info.setToBeSignedBase64(toBeSignedBase64);
-                            log("toBeSignedBase64 #" + (i + 1) + ": "
-                                    + toBeSignedBase64.substring(0, 20) + "..."
-                                    + " | conteúdo: " + byteRangeContent.length + " bytes");
-                        } catch (Exception e) {
-                            log("WARN toBeSignedBase64 #" + (i + 1) + ": " + e.getMessage());
+                        // ✅ toBeSignedBase64 = SHA-256(bytesDoByteRange desta assinatura),
+                        // o mesmo valor do hash do ByteRange — calculado uma única vez.
+                        byte[] rawHash = digests[i];
+                        if (rawHash != null) {
+                            String hashBase64 = Base64.getEncoder().encodeToString(rawHash);
+                            info.setByteRangeHashBase64(hashBase64);
+                            info.setToBeSignedBase64(hashBase64);
+                        } else {
+                            logger.warn("ByteRange inválido index={}", i + 1);
                         }
                     }
                 }
@@ -350,66 +572,63 @@ public class PdfService {
                 }
 
                 try {
-                    var acroForm = document.getDocumentCatalog().getAcroForm();
+                    var acroForm = document.getDocumentCatalog().getAcroForm(null);
                     if (acroForm != null) {
                         String fieldName = PUBLIC_KEY_FIELD_PREFIX + "_" + (i + 1);
                         var field = acroForm.getField(fieldName);
                         if (field instanceof org.apache.pdfbox.pdmodel.interactive.form.PDTextField tf) {
                             String pk = tf.getValue();
                             if (pk != null && !pk.isBlank()) {
-                                info.setPublicKeyBase64(pk);
-                                log("Chave pública extraída [" + fieldName + "]: "
-                                        + pk.substring(0, Math.min(20, pk.length())) + "...");
+                                resolvePublicKey(info, pk);
                             }
                         }
                     }
                 } catch (Exception e) {
-                    log("WARN chave pública #" + (i + 1) + ": " + e.getMessage());
+                    logger.warn("Falha ao ler chave pública index={}: {}", i + 1, e.getMessage());
                 }
 
                 result.add(info);
             }
+            operation.success();
         }
 
         return result;
     }
 
+    private byte[][] digestByteRanges(FileChannel channel, List<int[]> byteRanges) {
+        try {
+            return SharedPrefixDigest.digestAll(channel, byteRanges);
+        } catch (IOException e) {
+            logger.warn("Falha no hash dos ByteRanges: {}", e.getMessage());
+            return new byte[byteRanges.size()][];
+        }
+    }
+
     // =========================
     // PÁGINA DE METADADOS — CRIAÇÃO COMPLETA (1ª assinatura)
     // Desenha TODOS os 10 blocos de uma vez.
     // Os blocos sem metadata ficam com bordas visíveis mas vazios.
     // =========================
 
-    private void addFullMetadataPageWithAllBlocks(PDDocument doc, SignatureMetadata firstMetadata,
-                                                  int firstSignatureIndex) throws IOException {
+    void addFullMetadataPageWithAllBlocks(PDDocument doc, SignatureMetadata firstMetadata,
+                                          int firstSignatureIndex) throws IOException {
         PDPage page = new PDPage(new PDRectangle(PAGE_WIDTH, PAGE_HEIGHT));
         doc.addPage(page);
 
+        // Um único conjunto de fontes por documento: a página, o template e
+        // os blocos das assinaturas seguintes apontam para os mesmos objetos
+        BlockFonts fonts = BlockFonts.standard();
+        PDResources resources = new PDResources();
+        resources.add(fonts.regular());
+        resources.add(fonts.bold());
+        resources.add(fonts.oblique());
+        page.setResources(resources);
+
         try (PDPageContentStream cs = new PDPageContentStream(
                 doc, page, PDPageContentStream.AppendMode.OVERWRITE, true)) {
 
-            // Cabeçalho
-            float y = PAGE_HEIGHT - MARGIN;
-            cs.setLineWidth(1.5f);
-            cs.moveTo(MARGIN, y); cs.lineTo(PAGE_WIDTH - MARGIN, y); cs.stroke();
-            y -= 18;
-
-            cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 13);
-            cs.newLineAtOffset(MARGIN, y);
-            cs.showText("HISTÓRICO DE ASSINATURAS DIGITAIS");
-            cs.endText();
-            y -= 14;
-
-            cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 8);
-            cs.newLineAtOffset(MARGIN, y);
-            cs.showText("Documento assinado eletronicamente conforme ICP-Brasil / PAdES (DOC-ICP-15)");
-            cs.endText();
-            y -= 10;
-
-            cs.setLineWidth(0.5f);
-            cs.moveTo(MARGIN, y); cs.lineTo(PAGE_WIDTH - MARGIN, y); cs.stroke();
+            // Cabeçalho e rodapé estáticos (pré-renderizados)
+            cs.drawForm(metadataTemplate.instantiate(doc, fonts));
 
             // Desenha todos os 10 blocos
             float blocksTop = PAGE_HEIGHT - MARGIN - HEADER_HEIGHT;
@@ -418,35 +637,29 @@ public class PdfService {
 
                 if (idx == firstSignatureIndex) {
                     // Bloco preenchido com dados da primeira assinatura
-                    renderSignatureBlockContent(cs, firstMetadata, idx, blockY);
+                    renderSignatureBlockContent(cs, firstMetadata, idx, blockY, fonts);
                 }
                 // Slots futuros ficam completamente em branco — sem borda, sem label.
                 // O espaço é reservado implicitamente pelo layout da página.
             }
 
-            // Rodapé
+            // Única parte variável do rodapé
             float footerY = MARGIN + FOOTER_HEIGHT - 8;
-            cs.setLineWidth(0.5f);
-            cs.moveTo(MARGIN, footerY + 14); cs.lineTo(PAGE_WIDTH - MARGIN, footerY + 14); cs.stroke();
+            String geradoEm = "Gerado em: " + DATE_FORMAT.format(ZonedDateTime.now());
+            float tw = fonts.regular().getStringWidth(geradoEm) / 1000 * 7;
 
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE), 7);
-            cs.newLineAtOffset(MARGIN, footerY);
-            cs.showText("Este documento possui assinatura(s) digital(is) válida(s). " +
-                    "Para verificar, acesse: https://verificador.iti.gov.br");
-            cs.endText();
-
-            String geradoEm = "Gerado em: " + new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date());
-            float tw;
-            try { tw = new PDType1Font(Standard14Fonts.FontName.HELVETICA).getStringWidth(geradoEm) / 1000 * 7; }
-            catch (IOException ex) { tw = 100f; }
-
-            cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 7);
+            cs.setFont(fonts.regular(), 7);
             cs.newLineAtOffset(PAGE_WIDTH - MARGIN - tw, footerY);
             cs.showText(geradoEm);
             cs.endText();
         }
+
+        // /Contents já como array: a próxima assinatura só acrescenta um
+        // stream, sem regravar o primeiro na revisão incremental
+        List<PDStream> contents = new ArrayList<>();
+        page.getContentStreams().forEachRemaining(contents::add);
+        page.setContents(contents);
     }
 
     // =========================
@@ -459,14 +672,94 @@ public class PdfService {
         // A página de metadados é sempre a última
         PDPage page = doc.getPage(doc.getNumberOfPages() - 1);
 
+        float blocksTop = PAGE_HEIGHT - MARGIN - HEADER_HEIGHT;
+        float blockY = blocksTop - (signatureIndex - 1) * BLOCK_HEIGHT;
+
+        COSStream slot = findEnvelopeSlot(page, signatureIndex);
+        if (slot != null) {
+            // Envelope: só o stream reservado do slot é reescrito — página,
+            // /Contents e /Resources ficam intactos na revisão incremental
+            fillEnvelopeSlot(doc, page, slot, metadata, signatureIndex, blockY);
+            return;
+        }
+
         try (PDPageContentStream cs = new PDPageContentStream(
                 doc, page, PDPageContentStream.AppendMode.APPEND, true)) {
 
-            float blocksTop = PAGE_HEIGHT - MARGIN - HEADER_HEIGHT;
-            float blockY = blocksTop - (signatureIndex - 1) * BLOCK_HEIGHT;
-
             // Preenche apenas o conteúdo do bloco (a borda já foi desenhada na criação)
-            renderSignatureBlockContent(cs, metadata, signatureIndex, blockY);
+            renderSignatureBlockContent(cs, metadata, signatureIndex, blockY,
+                    BlockFonts.fromResources(page.getResources()));
+        }
+    }
+
+    // =========================
+    // ENVELOPE PRÉ-PROVISIONADO (opt-in: pdf.signature.envelope-mode)
+    // Na 1ª assinatura cria de uma vez os MAX_SIGNATURES campos de
+    // assinatura, campos de chave e streams de slot da página de metadados.
+    // As assinaturas 2..N só preenchem objetos que já existem, então cada
+    // revisão incremental tem tamanho constante — os arrays /Fields,
+    // /Annots e /Contents não são reescritos a cada assinante.
+    // =========================
+
+    private void provisionEnvelope(PDDocument doc, PDPage metadataPage) throws IOException {
+        PDAcroForm acroForm = getOrCreateAcroForm(doc);
+
+        COSArray slots = new COSArray();
+        List<PDStream> contents = new ArrayList<>();
+        metadataPage.getContentStreams().forEachRemaining(contents::add);
+
+        for (int idx = 1; idx <= MAX_SIGNATURES; idx++) {
+            String keyName = PUBLIC_KEY_FIELD_PREFIX + "_" + idx;
+            if (acroForm.getField(keyName) == null) {
+                PDTextField keyField = new PDTextField(acroForm);
+                keyField.setPartialName(keyName);
+                keyField.setFieldFlags(2);
+                acroForm.getFields().add(keyField);
+            }
+
+            PDSignatureField sigField = new PDSignatureField(acroForm);
+            sigField.setPartialName(SIGNATURE_FIELD_PREFIX + "_" + idx);
+            PDAnnotationWidget widget = sigField.getWidgets().get(0);
+            widget.setRectangle(new PDRectangle(0, 0, 0, 0));
+            widget.setPage(metadataPage);
+            metadataPage.getAnnotations().add(widget);
+            acroForm.getFields().add(sigField);
+
+            PDStream slot = new PDStream(doc);
+            contents.add(slot);
+            slots.add(slot.getCOSObject());
+        }
+
+        metadataPage.setContents(contents);
+        metadataPage.getCOSObject().setItem(ENVELOPE_SLOTS, slots);
+
+        logger.debug("Envelope provisionado slots={}", MAX_SIGNATURES);
+    }
+
+    private boolean hasEnvelope(PDDocument doc) {
+        if (doc.getNumberOfPages() == 0) return false;
+        PDPage page = doc.getPage(doc.getNumberOfPages() - 1);
+        return page.getCOSObject().getDictionaryObject(ENVELOPE_SLOTS) instanceof COSArray;
+    }
+
+    private COSStream findEnvelopeSlot(PDPage page, int signatureIndex) {
+        if (!(page.getCOSObject().getDictionaryObject(ENVELOPE_SLOTS) instanceof COSArray slots))
+            return null;
+        if (signatureIndex < 1 || signatureIndex > slots.size()) return null;
+        return slots.getObject(signatureIndex - 1) instanceof COSStream stream ? stream : null;
+    }
+
+    private void fillEnvelopeSlot(PDDocument doc, PDPage page, COSStream slot, SignatureMetadata metadata,
+                                  int signatureIndex, float blockY) throws IOException {
+        // Stream auxiliar só para resolver fontes contra os /Resources da
+        // página; o conteúdo vai direto para o stream do slot
+        PDAppearanceStream resourceScope = new PDAppearanceStream(doc);
+        resourceScope.setResources(page.getResources());
+
+        try (OutputStream out = slot.createOutputStream(COSName.FLATE_DECODE);
+             PDPageContentStream cs = new PDPageContentStream(doc, resourceScope, out)) {
+            renderSignatureBlockContent(cs, metadata, signatureIndex, blockY,
+                    BlockFonts.fromResources(page.getResources()));
         }
     }
 
@@ -478,7 +771,7 @@ public class PdfService {
      * Preenche o conteúdo de um bloco com os dados da assinatura.
      */
     private void renderSignatureBlockContent(PDPageContentStream cs, SignatureMetadata metadata,
-                                             int index, float y) throws IOException {
+                                             int index, float y, BlockFonts fonts) throws IOException {
         float x      = MARGIN;
         float w      = PAGE_WIDTH - MARGIN * 2;
         float h      = BLOCK_HEIGHT - 4;
@@ -493,7 +786,7 @@ public class PdfService {
         if (metadata == null) return;
 
         cs.beginText();
-        cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 8);
+        cs.setFont(fonts.bold(), 8);
         cs.newLineAtOffset(innerX, textY);
         cs.showText("ASSINATURA #" + index);
         cs.endText();
@@ -501,12 +794,12 @@ public class PdfService {
 
         if (metadata.getSignerName() != null) {
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 7);
+            cs.setFont(fonts.bold(), 7);
             cs.newLineAtOffset(innerX, textY);
             cs.showText("Assinante: ");
             cs.endText();
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 7);
+            cs.setFont(fonts.regular(), 7);
             cs.newLineAtOffset(innerX + 45, textY);
             cs.showText(truncate(metadata.getSignerName(), 60));
             cs.endText();
@@ -515,38 +808,38 @@ public class PdfService {
 
         if (metadata.getReason() != null) {
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 7);
+            cs.setFont(fonts.bold(), 7);
             cs.newLineAtOffset(innerX, textY);
             cs.showText("Cargo/Motivo: ");
             cs.endText();
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 7);
+            cs.setFont(fonts.regular(), 7);
             cs.newLineAtOffset(innerX + 56, textY);
             cs.showText(truncate(metadata.getReason(), 55));
             cs.endText();
             textY -= 10;
         }
 
-        String dateStr = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss").format(new Date());
+        String dateStr = DATE_FORMAT.format(ZonedDateTime.now());
         cs.beginText();
-        cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 7);
+        cs.setFont(fonts.bold(), 7);
         cs.newLineAtOffset(innerX, textY);
         cs.showText("Data: ");
         cs.endText();
         cs.beginText();
-        cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 7);
+        cs.setFont(fonts.regular(), 7);
         cs.newLineAtOffset(innerX + 25, textY);
         cs.showText(dateStr);
         cs.endText();
 
         if (metadata.getLocation() != null) {
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD), 7);
+            cs.setFont(fonts.bold(), 7);
             cs.newLineAtOffset(innerX + 130, textY);
             cs.showText("Local: ");
             cs.endText();
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 7);
+            cs.setFont(fonts.regular(), 7);
             cs.newLineAtOffset(innerX + 152, textY);
             cs.showText(truncate(metadata.getLocation(), 35));
             cs.endText();
@@ -555,7 +848,7 @@ public class PdfService {
 
         if (metadata.getIpAddress() != null) {
             cs.beginText();
-            cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE), 6);
+            cs.setFont(fonts.oblique(), 6);
             cs.newLineAtOffset(innerX, textY);
             cs.showText("IP: " + metadata.getIpAddress() +
                     (metadata.getDocumentId() != null ? "  |  Doc: " + metadata.getDocumentId() : ""));
@@ -567,45 +860,92 @@ public class PdfService {
     // INJEÇÃO DE CHAVE PÚBLICA
     // =========================
 
+    /**
+     * Valor do campo PQC_PublicKey_N: a chave em Base64 ou, com
+     * pdf.keys.embed=fingerprint (ou quando o cliente só manda a impressão
+     * digital de uma chave já registrada), a referência "sha256:…".
+     * {@code signerKey} é a chave já decodificada por validateMetadata; toda
+     * chave recebida é registrada a partir dela, sem novo parse.
+     */
+    private String publicKeyFieldValue(SignatureMetadata metadata, RegisteredKey signerKey) throws IOException {
+        if (metadata == null || signerKey == null) return null;
+
+        if (metadata.getPublicKey() != null && !metadata.getPublicKey().isBlank()) {
+            var key = keyRegistry.register(signerKey);
+            return keyRegistry.embedsFingerprint() ? key.fingerprint() : metadata.getPublicKey();
+        }
+        return signerKey.fingerprint();
+    }
+
+    /**
+     * Preenche a chave da assinatura a partir do campo do PDF: referências
+     * são resolvidas no registro; chaves inline passam a compartilhar a
+     * instância canônica. Em ambos os casos a impressão digital fica no info.
+     */
+    private void resolvePublicKey(SignatureInfo info, String fieldValue) {
+        if (PublicKeyRegistry.isReference(fieldValue)) {
+            info.setPublicKeyFingerprint(fieldValue);
+            keyRegistry.resolve(fieldValue).ifPresentOrElse(
+                    key -> info.setPublicKeyBase64(key.publicKeyBase64()),
+                    () -> logger.warn("Chave pública não registrada index={} fingerprint={}",
+                            info.getIndex(), fieldValue));
+            return;
+        }
+        try {
+            var key = keyRegistry.intern(fieldValue);
+            info.setPublicKeyFingerprint(key.fingerprint());
+            // SPKI mantém a forma original; chave crua usa a instância compartilhada
+            info.setPublicKeyBase64(key.publicKeyBase64().equals(fieldValue) ? key.publicKeyBase64() : fieldValue);
+        } catch (ValidationException e) {
+            info.setPublicKeyBase64(fieldValue);
+        }
+    }
+
     private void injectPublicKeyIntoDoc(PDDocument doc, String publicKey,
                                         int signatureIndex) throws IOException {
         String fieldName = PUBLIC_KEY_FIELD_PREFIX + "_" + signatureIndex;
 
-        var acroForm = doc.getDocumentCatalog().getAcroForm();
-        if (acroForm == null) {
-            acroForm = new org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm(doc);
-            doc.getDocumentCatalog().setAcroForm(acroForm);
-        }
+        PDAcroForm acroForm = getOrCreateAcroForm(doc);
 
-        if (acroForm.getField(fieldName) != null) {
-            log("WARN: campo " + fieldName + " já existe — ignorado");
+        var existing = acroForm.getField(fieldName);
+        if (existing != null) {
+            // Campo pré-provisionado pelo envelope e ainda vazio: só recebe o valor
+            if (existing instanceof PDTextField tf
+                    && tf.getCOSObject().getDictionaryObject(COSName.V) == null) {
+                tf.getCOSObject().setString(COSName.V, publicKey);
+                logger.debug("Campo reservado preenchido field={}", fieldName);
+                return;
+            }
+            logger.warn("Campo já existe, chave pública ignorada field={}", fieldName);
             return;
         }
 
-        var field = new org.apache.pdfbox.pdmodel.interactive.form.PDTextField(acroForm);
+        var field = new PDTextField(acroForm);
         field.setPartialName(fieldName);
         field.setFieldFlags(2);
-        field.getCOSObject().setString(org.apache.pdfbox.cos.COSName.V, publicKey);
+        field.getCOSObject().setString(COSName.V, publicKey);
         acroForm.getFields().add(field);
 
-        log("Campo criado: " + fieldName + " = "
-                + publicKey.substring(0, Math.min(20, publicKey.length())) + "...");
+        logger.debug("Campo criado field={} keyLength={}", fieldName, publicKey.length());
+    }
+
+    private PDAcroForm getOrCreateAcroForm(PDDocument doc) {
+        // Sem fixups: o getAcroForm() padrão acrescenta /DA, /DR e fontes
+        // ao formulário, objetos novos que iriam para a revisão incremental
+        var acroForm = doc.getDocumentCatalog().getAcroForm(null);
+        if (acroForm == null) {
+            acroForm = new PDAcroForm(doc);
+            doc.getDocumentCatalog().setAcroForm(acroForm);
+        }
+        return acroForm;
     }
 
     // =========================
     // DSS — HELPERS
     // =========================
 
-    private PAdESService buildPAdESService() {
-        CommonCertificateVerifier verifier = new CommonCertificateVerifier();
-        verifier.setCheckRevocationForUntrustedChains(false);
-        PAdESService service = new PAdESService(verifier);
-        service.setPdfObjFactory(new PdfBoxNativeObjectFactory());
-        return service;
-    }
-
     private PAdESSignatureParameters buildSignatureParameters(SignatureMetadata metadata,
-                                                              int signatureIndex) {
+                                                              int signatureIndex, boolean envelope) {
         PAdESSignatureParameters params = new PAdESSignatureParameters();
         params.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
         params.setSignaturePackaging(SignaturePackaging.ENVELOPED);
@@ -625,6 +965,8 @@ public class PdfService {
         fieldParams.setWidth(1);
         fieldParams.setHeight(1);
         fieldParams.setPage(1);
+        // Envelope: o DSS assina o campo já existente em vez de criar outro
+        if (envelope) fieldParams.setFieldId(SIGNATURE_FIELD_PREFIX + "_" + signatureIndex);
         imageParams.setFieldParameters(fieldParams);
         params.setImageParameters(imageParams);
 
@@ -634,129 +976,123 @@ public class PdfService {
     // =========================
     // EXTRAIR BYTERANGE — ÚLTIMA ASSINATURA
     // Para múltiplas assinaturas, o PDF terá vários /ByteRange.
-    // Precisamos sempre do ÚLTIMO (o mais recente, com maior offset).
+    // Precisamos sempre do ÚLTIMO (o mais recente), que fica na última
+    // seção incremental — o ByteRangeLocator varre a partir do %%EOF.
     // =========================
 
-    private int[] extractLastByteRangeFromPdf(byte[] pdfBytes) {
-        String marker      = "/ByteRange [";
-        byte[] markerBytes = marker.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
-
-        int[] lastByteRange = null;
-
-        for (int i = 0; i < pdfBytes.length - markerBytes.length; i++) {
-            boolean found = true;
-            for (int j = 0; j < markerBytes.length; j++) {
-                if (pdfBytes[i + j] != markerBytes[j]) { found = false; break; }
-            }
-            if (!found) continue;
-
-            int pos = i + markerBytes.length;
-            int[] values = new int[4];
-            int count = 0;
-
-            while (pos < pdfBytes.length && count < 4) {
-                while (pos < pdfBytes.length
-                        && (pdfBytes[pos] == ' ' || pdfBytes[pos] == '\t'))
-                    pos++;
-
-                if (pos >= pdfBytes.length || pdfBytes[pos] == ']') break;
-
-                StringBuilder num = new StringBuilder();
-                while (pos < pdfBytes.length
-                        && pdfBytes[pos] >= '0' && pdfBytes[pos] <= '9') {
-                    num.append((char) pdfBytes[pos++]);
-                }
-
-                if (num.length() == 0) { pos++; continue; }
-                values[count++] = Integer.parseInt(num.toString());
-            }
+    ByteRangeLocator.Location extractLastByteRangeFromPdf(byte[] pdfBytes) {
+        return logLocation(ByteRangeLocator.locateLast(pdfBytes));
+    }
 
-            if (count == 4 && values[1] > 0 && values[3] > 0) {
-                // Guarda o ByteRange com maior offset (o mais recente)
-                if (lastByteRange == null || values[2] > lastByteRange[2]) {
-                    lastByteRange = values;
-                }
-            }
+    ByteRangeLocator.Location extractLastByteRangeFromPdf(Path pdfPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(pdfPath, StandardOpenOption.READ)) {
+            return logLocation(ByteRangeLocator.locateLast(channel));
         }
+    }
 
-        if (lastByteRange != null) {
-            log("Último ByteRange: [" + lastByteRange[0] + ", " + lastByteRange[1]
-                    + ", " + lastByteRange[2] + ", " + lastByteRange[3] + "]");
-        } else {
-            log("WARN: ByteRange não encontrado nos bytes do PDF");
+    private ByteRangeLocator.Location logLocation(ByteRangeLocator.Location location) {
+        if (location == null) {
+            logger.warn("ByteRange não encontrado nos bytes do PDF");
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("Último ByteRange byteRange={} contents={}..{}",
+                    Arrays.toString(location.byteRange()), location.contentsStart(), location.contentsEnd());
         }
-
-        return lastByteRange;
+        return location;
     }
 
     // =========================
-    // CACHE DE PARAMS DSS
+    // SESSÃO DE PREPARAÇÃO
+    // Guarda só o que /finalizar precisa; a finalização usa a janela do
+    // /Contents registrada em vez de procurar o ByteRange de novo.
     // =========================
 
-    private void saveParamsCache(String preparedPath, PAdESSignatureParameters params,
-                                 byte[] byteRangeContent, SignatureMetadata metadata) throws IOException {
-        Files.write(Paths.get(preparedPath + ".cache"), byteRangeContent);
-        Files.writeString(Paths.get(preparedPath + ".algo"), params.getSignatureAlgorithm().name());
-
-        if (metadata != null) {
-            String metaLine = nullToEmpty(metadata.getSignerName()) + "|"
-                    + nullToEmpty(metadata.getReason())             + "|"
-                    + nullToEmpty(metadata.getLocation());
-            Files.writeString(Paths.get(preparedPath + ".meta"), metaLine);
-        }
+    private void saveSession(String preparedPath, PrepareContext ctx, String fingerprint) throws IOException {
+        SignatureMetadata metadata = ctx.metadata;
+        sessionStore.save(new PreparedSessionStore.Session(
+                PreparedSessionStore.normalize(preparedPath),
+                ctx.preparedBytes.length,
+                ctx.byteRange,
+                ctx.scheme.name(),
+                metadata != null ? metadata.getSignerName() : null,
+                metadata != null ? metadata.getReason()     : null,
+                metadata != null ? metadata.getLocation()   : null,
+                ctx.signatureIndex,
+                System.currentTimeMillis(),
+                fingerprint));
     }
 
-    private ParamsCache loadParamsCache(String preparedPath) throws Exception {
-        File cacheFile = new File(preparedPath + ".cache");
-        File algoFile  = new File(preparedPath + ".algo");
-
-        if (!cacheFile.exists() || !algoFile.exists())
-            throw new ValidationException(
-                    "Cache de assinatura não encontrado. Execute /preparar primeiro.");
-
-        byte[] byteRangeContent = Files.readAllBytes(cacheFile.toPath());
-
-        PAdESSignatureParameters params = new PAdESSignatureParameters();
-        params.setSignatureLevel(SignatureLevel.PAdES_BASELINE_B);
-        params.setSignaturePackaging(SignaturePackaging.ENVELOPED);
-        params.setDigestAlgorithm(DigestAlgorithm.SHA256);
-        params.setGenerateTBSWithoutCertificate(true);
-
-        File metaFile = new File(preparedPath + ".meta");
-        if (metaFile.exists()) {
-            String[] parts = Files.readString(metaFile.toPath()).split("\\|", -1);
-            if (parts.length >= 1 && !parts[0].isBlank()) params.setSignerName(parts[0]);
-            if (parts.length >= 2 && !parts[1].isBlank()) params.setReason(parts[1]);
-            if (parts.length >= 3 && !parts[2].isBlank()) params.setLocation(parts[2]);
+    private ByteRangeLocator.Location resolveContentsWindow(String preparedPath, Path prepared)
+            throws Exception {
+        var session = sessionStore.find(preparedPath);
+
+        if (session.isEmpty()) {
+            // Preparações anteriores à sessão: ainda têm os sidecars .cache/.algo
+            if (!sessionStore.hasLegacySidecars(preparedPath))
+                throw new ValidationException(
+                        "Cache de assinatura não encontrado. Execute /preparar primeiro.");
+
+            // Extrai o ByteRange da ÚLTIMA assinatura (a do placeholder),
+            // lendo só o final do arquivo
+            ByteRangeLocator.Location location = extractLastByteRangeFromPdf(prepared);
+            if (location == null)
+                throw new ValidationException("ByteRange não encontrado no PDF preparado.");
+            return location;
         }
 
-        SignatureImageParameters imageParams = new SignatureImageParameters();
-        SignatureFieldParameters  fieldParams = new SignatureFieldParameters();
-        fieldParams.setOriginX(0);
-        fieldParams.setOriginY(0);
-        fieldParams.setWidth(1);
-        fieldParams.setHeight(1);
-        fieldParams.setPage(1);
-        imageParams.setFieldParameters(fieldParams);
-        params.setImageParameters(imageParams);
-
-        return new ParamsCache(params, byteRangeContent);
-    }
-
-    private void deleteParamsCache(String preparedPath) {
-        for (String ext : new String[]{".cache", ".algo", ".meta"}) {
-            try { Files.deleteIfExists(Paths.get(preparedPath + ext)); }
-            catch (IOException ignored) {}
+        var s = session.get();
+        try (FileChannel channel = FileChannel.open(prepared, StandardOpenOption.READ)) {
+            if (channel.size() != s.preparedSize())
+                throw new ValidationException("PDF preparado foi alterado após /preparar.");
+
+            ByteBuffer edge = ByteBuffer.allocate(1);
+            channel.read(edge, s.contentsStart());
+            boolean opens = edge.get(0) == '<';
+            edge.clear();
+            channel.read(edge, s.contentsEnd() - 1);
+            if (!opens || edge.get(0) != '>')
+                throw new ValidationException("Janela /Contents da sessão não confere com o PDF preparado.");
         }
+
+        return new ByteRangeLocator.Location(s.byteRange(), -1);
     }
 
     // =========================
     // UTILS
     // =========================
 
-    private int countExistingSignatures(File file) throws IOException {
-        try (PDDocument doc = Loader.loadPDF(file)) {
-            return doc.getSignatureDictionaries().size();
+    /**
+     * Guarda o PDF no armazenamento de revisões, se ativo. Falhas aqui não
+     * afetam a assinatura — o arquivo continua no caminho de sempre.
+     */
+    private boolean storeRevision(Path pdf) {
+        if (!revisionStore.isEnabled()) return false;
+        try {
+            revisionStore.store(pdf);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Falha ao armazenar revisão de {}: {}", pdf, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Identifica requisições idênticas para o single-flight: mesmo dado
+     * principal e mesmos metadados.
+     */
+    private static String fingerprint(String primary, SignatureMetadata m) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            String[] parts = m == null ? new String[]{primary} : new String[]{
+                    primary, m.getDocumentId(), m.getSignerName(), m.getReason(), m.getLocation(),
+                    m.getIpAddress(), m.getUserAgent(), m.getPublicKey(), m.getPublicKeyFingerprint(),
+                    m.getAlgorithm(), m.getParameters()};
+            for (String part : parts) {
+                if (part != null) md.update(part.getBytes(StandardCharsets.UTF_8));
+                md.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(md.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
@@ -774,11 +1110,30 @@ public class PdfService {
             throw new ValidationException("Arquivo muito grande. Máximo: 50MB");
     }
 
-    private void validateMetadata(SignatureMetadata metadata) throws ValidationException {
+    /**
+     * Valida os metadados e devolve a chave do assinante já decodificada
+     * (da chave enviada ou da impressão digital registrada), ou null.
+     */
+    private RegisteredKey validateMetadata(SignatureMetadata metadata) throws ValidationException {
         if (metadata.getDocumentId() != null && metadata.getDocumentId().length() > 100)
             throw new ValidationException("Document ID muito longo");
         if (metadata.getSignerName() != null && metadata.getSignerName().length() > 200)
             throw new ValidationException("Nome muito longo");
+        boolean hasKey         = metadata.getPublicKey() != null && !metadata.getPublicKey().isBlank();
+        boolean hasFingerprint = metadata.getPublicKeyFingerprint() != null
+                && !metadata.getPublicKeyFingerprint().isBlank();
+        if (hasKey) {
+            var key = keyRegistry.intern(metadata.getPublicKey());
+            if (hasFingerprint && keyRegistry.resolve(metadata.getPublicKeyFingerprint())
+                    .filter(k -> k.fingerprint().equals(key.fingerprint())).isEmpty())
+                throw new ValidationException("Impressão digital não corresponde à chave pública");
+            return key;
+        }
+        if (hasFingerprint) {
+            return keyRegistry.resolve(metadata.getPublicKeyFingerprint()).orElseThrow(() ->
+                    new ValidationException("Chave pública não registrada: " + metadata.getPublicKeyFingerprint()));
+        }
+        return null;
     }
 
     private String truncate(String s, int max) {
@@ -786,18 +1141,96 @@ public class PdfService {
         return s.length() <= max ? s : s.substring(0, max - 3) + "...";
     }
 
-    private String nullToEmpty(String s) { return s == null ? "" : s; }
-
-    private void log(String msg) { System.out.println("[PdfService] " + msg); }
 
     // =========================
     // CLASSES INTERNAS
     // =========================
 
-    private static class ParamsCache {
-        final PAdESSignatureParameters params;
-        final byte[] byteRangeContent;
-        ParamsCache(PAdESSignatureParameters p, byte[] b) { params = p; byteRangeContent = b; }
+    /**
+     * Estado de uma preparação em andamento, compartilhado entre as etapas
+     * do pipeline. Fecha o documento e remove o temp ao final.
+     */
+    private static class PrepareContext implements AutoCloseable {
+        final File              inputFile;
+        final SignatureMetadata metadata;
+        final RegisteredKey     signerKey;
+        final PDDocument        document;
+        final int               signatureIndex;
+        final boolean           envelope;
+
+        Path                     tempPath;
+        PAdESSignatureParameters params;
+        SignatureScheme          scheme;
+        byte[]                   preparedBytes;
+        int[]                    byteRange;
+        byte[]                   hashToSign;
+        long                     documentRevisionBytes;
+        long                     signatureRevisionBytes;
+
+        private final PdfMetrics metrics;
+        private long             trackedTempBytes = -1;
+
+        PrepareContext(File inputFile, SignatureMetadata metadata, RegisteredKey signerKey,
+                       PDDocument document, int signatureIndex, boolean envelope, PdfMetrics metrics) {
+            this.inputFile      = inputFile;
+            this.metadata       = metadata;
+            this.signerKey      = signerKey;
+            this.document       = document;
+            this.signatureIndex = signatureIndex;
+            this.envelope       = envelope;
+            this.metrics        = metrics;
+        }
+
+        /** Conta o arquivo temporário salvo em pdf.temp.files/bytes até o close(). */
+        void trackTempFile() throws IOException {
+            trackedTempBytes = Files.size(tempPath);
+            metrics.tempFileCreated(trackedTempBytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                document.close();
+            } finally {
+                if (tempPath != null) Files.deleteIfExists(tempPath);
+                if (trackedTempBytes >= 0) metrics.tempFileDeleted(trackedTempBytes);
+            }
+        }
+    }
+
+    /**
+     * Fontes usadas no bloco de assinatura. No envelope vêm dos /Resources
+     * da página, para que preencher um slot não acrescente novas fontes.
+     */
+    record BlockFonts(PDFont regular, PDFont bold, PDFont oblique) {
+
+        static BlockFonts standard() {
+            return new BlockFonts(
+                    new PDType1Font(Standard14Fonts.FontName.HELVETICA),
+                    new PDType1Font(Standard14Fonts.FontName.HELVETICA_BOLD),
+                    new PDType1Font(Standard14Fonts.FontName.HELVETICA_OBLIQUE));
+        }
+
+        static BlockFonts fromResources(PDResources resources) throws IOException {
+            BlockFonts fallback = standard();
+            PDFont regular = null, bold = null, oblique = null;
+            if (resources != null) {
+                for (COSName name : resources.getFontNames()) {
+                    PDFont font = resources.getFont(name);
+                    if (font == null) continue;
+                    switch (font.getName()) {
+                        case "Helvetica"         -> { if (regular == null) regular = font; }
+                        case "Helvetica-Bold"    -> { if (bold    == null) bold    = font; }
+                        case "Helvetica-Oblique" -> { if (oblique == null) oblique = font; }
+                        default -> { }
+                    }
+                }
+            }
+            return new BlockFonts(
+                    regular != null ? regular : fallback.regular(),
+                    bold    != null ? bold    : fallback.bold(),
+                    oblique != null ? oblique : fallback.oblique());
+        }
     }
 
     public class PrepareResponse {
@@ -807,16 +1240,24 @@ public class PdfService {
         private String           fileName;
         private SignatureMetadata metadata;
         private int              signatureIndex;
+        private long             documentRevisionBytes;
+        private long             signatureRevisionBytes;
+        private SignatureScheme  scheme;
 
         public PrepareResponse(byte[] toBeSigned, String toBeSignedBase64,
                                String preparedFilePath, String fileName,
-                               SignatureMetadata metadata, int signatureIndex) {
+                               SignatureMetadata metadata, int signatureIndex,
+                               long documentRevisionBytes, long signatureRevisionBytes,
+                               SignatureScheme scheme) {
             this.toBeSigned       = toBeSigned;
             this.toBeSignedBase64 = toBeSignedBase64;
             this.preparedFilePath = preparedFilePath;
             this.fileName         = fileName;
             this.metadata         = metadata;
             this.signatureIndex   = signatureIndex;
+            this.documentRevisionBytes  = documentRevisionBytes;
+            this.signatureRevisionBytes = signatureRevisionBytes;
+            this.scheme                 = scheme;
         }
 
         public byte[]            getToBeSigned()       { return toBeSigned; }
@@ -825,10 +1266,27 @@ public class PdfService {
         public String            getFileName()         { return fileName; }
         public SignatureMetadata getMetadata()         { return metadata; }
         public int               getSignatureIndex()   { return signatureIndex; }
+
+        /**
+         * Bytes acrescentados pela revisão do documento (bloco visual e
+         * chave pública). Na 1ª assinatura o arquivo é regravado por
+         * inteiro, então é a diferença de tamanho em relação à entrada.
+         */
+        public long getDocumentRevisionBytes()  { return documentRevisionBytes; }
+
+        /** Bytes acrescentados pela revisão do DSS (dicionário e placeholder). */
+        public long getSignatureRevisionBytes() { return signatureRevisionBytes; }
+
+        /** Esquema para o qual o /Contents foi reservado. */
+        public String getSignatureAlgorithm()   { return scheme.getDisplayName(); }
+
+        /** Tamanho máximo, em bytes, da assinatura aceita no /finalizar. */
+        public int getReservedSignatureBytes()  { return scheme.getSignatureBytes(); }
     }
 
     public static class SignatureMetadata {
-        private String documentId, signerName, reason, location, ipAddress, userAgent, publicKey;
+        private String documentId, signerName, reason, location, ipAddress, userAgent, publicKey,
+                publicKeyFingerprint, algorithm, parameters;
 
         public String getDocumentId()         { return documentId; }
         public void   setDocumentId(String v) { this.documentId = v; }
@@ -844,12 +1302,21 @@ public class PdfService {
         public void   setUserAgent(String v)  { this.userAgent = v; }
         public String getPublicKey()          { return publicKey; }
         public void   setPublicKey(String v)  { this.publicKey = v; }
+        /** Alternativa a publicKey: impressão digital ("sha256:…") de uma chave já registrada. */
+        public String getPublicKeyFingerprint()         { return publicKeyFingerprint; }
+        public void   setPublicKeyFingerprint(String v) { this.publicKeyFingerprint = v; }
+        /** Esquema ("ML-DSA-65") ou só a família ("ml-dsa"); define o espaço reservado no /Contents. */
+        public String getAlgorithm()          { return algorithm; }
+        public void   setAlgorithm(String v)  { this.algorithm = v; }
+        /** Nível do esquema quando algorithm é só a família (ex.: "ml-dsa-44"). */
+        public String getParameters()         { return parameters; }
+        public void   setParameters(String v) { this.parameters = v; }
     }
 
     public static class SignatureInfo {
         private int     index, signatureSize;
         private String  name, reason, location, filter, subFilter,
-                signatureBase64, byteRangeHashBase64, publicKeyBase64, toBeSignedBase64;
+                signatureBase64, byteRangeHashBase64, publicKeyBase64, publicKeyFingerprint, toBeSignedBase64;
         private Date    signDate;
         private int[]   byteRange;
         private boolean byteRangeValid;
@@ -880,11 +1347,39 @@ public class PdfService {
         public void    setByteRangeHashBase64(String v)  { this.byteRangeHashBase64 = v; }
         public String  getPublicKeyBase64()              { return publicKeyBase64; }
         public void    setPublicKeyBase64(String v)      { this.publicKeyBase64 = v; }
+        public String  getPublicKeyFingerprint()         { return publicKeyFingerprint; }
+        public void    setPublicKeyFingerprint(String v) { this.publicKeyFingerprint = v; }
         public String  getToBeSignedBase64()             { return toBeSignedBase64; }
         public void    setToBeSignedBase64(String v)     { this.toBeSignedBase64 = v; }
+
+        /** Cópia independente — data e ByteRange incluídos. */
+        public SignatureInfo copy() {
+            SignatureInfo c = new SignatureInfo();
+            c.index                = index;
+            c.signatureSize        = signatureSize;
+            c.name                 = name;
+            c.reason               = reason;
+            c.location             = location;
+            c.filter               = filter;
+            c.subFilter            = subFilter;
+            c.signatureBase64      = signatureBase64;
+            c.byteRangeHashBase64  = byteRangeHashBase64;
+            c.publicKeyBase64      = publicKeyBase64;
+            c.publicKeyFingerprint = publicKeyFingerprint;
+            c.toBeSignedBase64     = toBeSignedBase64;
+            c.signDate             = signDate == null ? null : (Date) signDate.clone();
+            c.byteRange            = byteRange == null ? null : byteRange.clone();
+            c.byteRangeValid       = byteRangeValid;
+            return c;
+        }
     }
 
     public static class ValidationException extends Exception {
         public ValidationException(String message) { super(message); }
     }
+
+    /** O documento tem outra operação pendente que esta requisição invalidaria. */
+    public static class ConflictException extends ValidationException {
+        public ConflictException(String message) { super(message); }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,210 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfAdmissionControl.OverloadedException;
+import com.pdfController.api.Service.PdfService.PrepareResponse;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import com.pdfController.api.Service.PdfService.ValidationException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Modo streaming de preparar/finalizar: o PDF chega no corpo da requisição
+ * (ou multipart) e volta no corpo da resposta, sem caminho compartilhado
+ * entre o cliente e este serviço.
+ *
+ * O upload é copiado em blocos para um arquivo de trabalho — nunca inteiro
+ * no heap — e identificado por uma sessão (UUID). A finalização referencia
+ * essa sessão; os arquivos de trabalho são removidos depois do download do
+ * PDF assinado ou quando expiram.
+ */
+@Service
+public class PdfStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfStreamService.class);
+
+    private static final long MAX_UPLOAD_BYTES = 50L * 1024 * 1024;
+    private static final int  COPY_BUFFER      = 64 * 1024;
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Autowired
+    private PdfAdmissionControl admission;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Path     directory;
+    private final Duration ttl;
+
+    public PdfStreamService(
+            @Value("${pdf.stream.dir:#{systemProperties['java.io.tmpdir']}/pdf-stream}") String directory,
+            @Value("${pdf.session.ttl:PT1H}") Duration ttl) {
+        this.directory = Paths.get(directory);
+        this.ttl       = ttl;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        Gauge.builder("pdf.stream.files", this, PdfStreamService::countWorkingFiles)
+                .description("Arquivos de trabalho do modo streaming")
+                .register(meterRegistry);
+    }
+
+    public record StreamPrepareResult(String sessao, PrepareResponse response, Path preparedFile) {}
+
+    // =========================
+    // PREPARAR / FINALIZAR
+    // =========================
+
+    public StreamPrepareResult preparar(InputStream body, SignatureMetadata metadata) throws Exception {
+        String sessao = UUID.randomUUID().toString();
+        Path input    = inputFile(sessao);
+
+        try {
+            long size = copyLimited(body, input);
+            logger.info("Upload recebido para sessão {} ({} bytes)", sessao, size);
+
+            // O upload já está em disco; a memória só é reservada para o parse do PDF
+            PrepareResponse response = admission.execute(size,
+                    () -> pdfService.prepararPdf(input.toString(), metadata));
+            return new StreamPrepareResult(sessao, response, Paths.get(response.getPreparedFilePath()));
+
+        } catch (Exception e) {
+            release(sessao);
+            throw e;
+        }
+    }
+
+    public Path finalizar(String sessao, String signatureBase64, SignatureMetadata metadata) throws Exception {
+        Path prepared = preparedFile(sessao);
+        if (!Files.isRegularFile(prepared))
+            throw new FileNotFoundException("Sessão não encontrada ou expirada: " + sessao);
+
+        String signed = admission.execute(PdfAdmissionControl.FINALIZE_BYTES,
+                () -> pdfService.finalizarPdf(prepared.toString(), signatureBase64, metadata));
+        return Paths.get(signed);
+    }
+
+    /**
+     * Bytes que o preparar anexou ao PDF enviado — o que falta ao cliente
+     * que já tem o original. Se o preparar reescreveu o arquivo, o delta
+     * vem {@code full}, sem bytes: o cliente recebe o PDF preparado inteiro.
+     * O buffer do trecho anexado conta no orçamento de memória da admissão.
+     */
+    public PdfDelta.Delta prepareDelta(String sessao) throws IOException, OverloadedException {
+        Path input    = inputFile(sessao);
+        Path prepared = preparedFile(sessao);
+        long appended = Math.max(0, Files.size(prepared) - Files.size(input));
+        try (PdfAdmissionControl.Permit permit = admission.admit(appended)) {
+            return PdfDelta.append(input, prepared);
+        }
+    }
+
+    /**
+     * Trecho do /Contents que o finalizar gravou sobre o PDF preparado.
+     */
+    public PdfDelta.Delta finalizeDelta(String sessao, Path signed) throws IOException, OverloadedException {
+        ByteRangeLocator.Location location = pdfService.extractLastByteRangeFromPdf(signed);
+        if (location == null) throw new IOException("ByteRange não encontrado no PDF assinado");
+        // PdfDelta.patch lê a janela nas duas revisões
+        try (PdfAdmissionControl.Permit permit =
+                     admission.admit(2 * (location.contentsEnd() - location.contentsStart()))) {
+            return PdfDelta.patch(preparedFile(sessao), signed, location.contentsStart(), location.contentsEnd());
+        }
+    }
+
+    /**
+     * Remove todos os arquivos de trabalho da sessão (entrada, preparado, assinado).
+     */
+    public void release(String sessao) {
+        String prefix = sessionId(sessao);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(p -> p.getFileName().toString().startsWith(prefix))
+                 .forEach(p -> {
+                     try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+                 });
+        } catch (IOException e) {
+            logger.warn("Falha ao liberar sessão {}: {}", sessao, e.getMessage());
+        }
+    }
+
+    // =========================
+    // ARQUIVOS DE TRABALHO
+    // =========================
+
+    private Path inputFile(String sessao) {
+        return directory.resolve(sessionId(sessao) + ".pdf");
+    }
+
+    private Path preparedFile(String sessao) {
+        return directory.resolve(sessionId(sessao) + "_prepared.pdf");
+    }
+
+    /**
+     * Aceita apenas UUIDs — impede que a sessão vire um caminho arbitrário.
+     */
+    private String sessionId(String sessao) {
+        try {
+            return UUID.fromString(sessao).toString();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Sessão inválida");
+        }
+    }
+
+    private long copyLimited(InputStream in, Path target) throws IOException, ValidationException {
+        byte[] buffer = new byte[COPY_BUFFER];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > MAX_UPLOAD_BYTES)
+                    throw new ValidationException("Arquivo muito grande. Máximo: 50MB");
+                out.write(buffer, 0, read);
+            }
+        }
+        if (total == 0) throw new ValidationException("Corpo da requisição vazio");
+        return total;
+    }
+
+    private long countWorkingFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pdf.session.cleanup-interval:PT5M}",
+               initialDelayString = "${pdf.session.cleanup-interval:PT5M}")
+    public void cleanup() {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int removed = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file))
+                        removed++;
+                } catch (IOException ignored) {}
+            }
+        } catch (IOException e) {
+            logger.warn("Falha ao varrer {}: {}", directory, e.getMessage());
+        }
+        if (removed > 0) logger.info("Limpeza de streaming: {} arquivos de trabalho expirados removidos", removed);
+    }
+}
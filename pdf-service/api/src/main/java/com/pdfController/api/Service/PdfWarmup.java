@@ -0,0 +1,123 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.PrepareResponse;
+import com.pdfController.api.Service.PdfService.SignatureMetadata;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Aquecimento na inicialização: executa preparar → finalizar → verificar
+ * sobre um PDF sintético antes de a instância aceitar tráfego.
+ *
+ * Roda como ApplicationRunner, e o Spring Boot só publica o readiness
+ * ACCEPTING_TRAFFIC depois que todos os runners terminam — o balanceador
+ * não recebe a instância enquanto o carregamento de classes do DSS/PDFBox
+ * e a compilação JIT dos caminhos quentes ainda estão acontecendo.
+ * Falhas no aquecimento são registradas e não impedem a subida.
+ */
+@Component
+public class PdfWarmup implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfWarmup.class);
+
+    /** Assinaturas por rodada: a 1ª (save completo) e uma incremental. */
+    private static final int SIGNATURES_PER_ROUND = 2;
+
+    /** Tamanho de uma assinatura ML-DSA-44. */
+    private static final int SAMPLE_SIGNATURE_BYTES = SignatureScheme.ML_DSA_44.getSignatureBytes();
+
+    @Autowired
+    private PdfService pdfService;
+
+    @Value("${pdf.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pdf.warmup.iterations:3}")
+    private int iterations;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || iterations <= 0) return;
+
+        long start = System.nanoTime();
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("pdf_warmup_");
+            for (int i = 1; i <= iterations; i++) runRound(dir, i);
+            logger.info("Aquecimento concluído: {} rodadas em {} ms",
+                    iterations, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Aquecimento interrompido: {}", e.getMessage());
+        } finally {
+            if (dir != null) deleteRecursively(dir);
+        }
+    }
+
+    private void runRound(Path dir, int round) throws Exception {
+        Path current = dir.resolve("warmup_" + round + ".pdf");
+        writeSamplePdf(current);
+
+        String signature = Base64.getEncoder().encodeToString(new byte[SAMPLE_SIGNATURE_BYTES]);
+        for (int n = 1; n <= SIGNATURES_PER_ROUND; n++) {
+            SignatureMetadata metadata = sampleMetadata(n);
+            PrepareResponse prepared = pdfService.prepararPdf(current.toString(), metadata);
+            String signed = pdfService.finalizarPdf(prepared.getPreparedFilePath(), signature, metadata);
+
+            current = dir.resolve("warmup_" + round + "_" + n + ".pdf");
+            Files.move(Paths.get(signed), current);
+        }
+
+        pdfService.verificarAssinaturas(current.toString());
+    }
+
+    private static SignatureMetadata sampleMetadata(int n) {
+        SignatureMetadata metadata = new SignatureMetadata();
+        metadata.setSignerName("Aquecimento " + n);
+        metadata.setReason("Aquecimento");
+        metadata.setLocation("localhost");
+        metadata.setAlgorithm(SignatureScheme.ML_DSA_44.getDisplayName());
+        metadata.setPublicKey(Base64.getEncoder().encodeToString(new byte[32]));
+        return metadata;
+    }
+
+    private static void writeSamplePdf(Path target) throws IOException {
+        try (PDDocument doc = new PDDocument()) {
+            PDPage page = new PDPage();
+            doc.addPage(page);
+            try (PDPageContentStream cs = new PDPageContentStream(doc, page)) {
+                cs.beginText();
+                cs.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                cs.newLineAtOffset(72, 720);
+                cs.showText("Documento de aquecimento");
+                cs.endText();
+            }
+            doc.save(target.toFile());
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try { Files.deleteIfExists(p); } catch (IOException ignored) {}
+            });
+        } catch (IOException e) {
+            logger.warn("Falha ao limpar diretório de aquecimento {}: {}", dir, e.getMessage());
+        }
+    }
+}
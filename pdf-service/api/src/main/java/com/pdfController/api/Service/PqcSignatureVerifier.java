@@ -0,0 +1,294 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfAdmissionControl.OverloadedException;
+import com.pdfController.api.Service.PdfService.SignatureInfo;
+import com.pdfController.api.Service.PdfService.ValidationException;
+import jakarta.annotation.PreDestroy;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAPublicKeyParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSASigner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Verificação criptográfica ML-DSA (FIPS 204) dentro do serviço, com o
+ * BouncyCastle — sem a ida e volta ao cliente nem o processo da CLI nativa
+ * por assinatura.
+ *
+ * Cada assinatura é ML-DSA pura, contexto vazio, sobre os 32 bytes do
+ * toBeSigned (SHA-256 do ByteRange). O parâmetro (44/65/87) vem do tamanho
+ * da chave pública, crua ou em SubjectPublicKeyInfo, em DER ou PEM; a assinatura é lida do
+ * início do /Contents, e o restante da janela tem de ser só padding zero.
+ *
+ * Os documentos são carregados em paralelo e, depois, todas as assinaturas
+ * de todos eles são verificadas em paralelo no mesmo pool. As chaves vêm já
+ * decodificadas do {@link PublicKeyRegistry} sempre que possível.
+ */
+@Component
+public class PqcSignatureVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(PqcSignatureVerifier.class);
+
+    private static final Map<Integer, MLDSAParameters> PARAMETERS_BY_KEY_SIZE = Map.of(
+            1312, MLDSAParameters.ml_dsa_44,
+            1952, MLDSAParameters.ml_dsa_65,
+            2592, MLDSAParameters.ml_dsa_87);
+
+    private static final Map<MLDSAParameters, SignatureScheme> SCHEMES = Map.of(
+            MLDSAParameters.ml_dsa_44, SignatureScheme.ML_DSA_44,
+            MLDSAParameters.ml_dsa_65, SignatureScheme.ML_DSA_65,
+            MLDSAParameters.ml_dsa_87, SignatureScheme.ML_DSA_87);
+
+    private static final byte[] PEM_BEGIN  = "-----BEGIN ".getBytes(StandardCharsets.US_ASCII);
+    private static final String PEM_DASHES = "-----";
+
+    private final ExecutorService   executor;
+    private final int               maxItems;
+    private final PublicKeyRegistry keyRegistry;
+
+    public PqcSignatureVerifier(@Value("${pdf.verify.crypto.parallelism:0}") int parallelism,
+                                @Value("${pdf.batch.max-items:500}") int maxItems,
+                                PublicKeyRegistry keyRegistry) {
+        this.maxItems    = maxItems;
+        this.keyRegistry = keyRegistry;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "pdf-pqc-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface SignatureSource {
+        List<SignatureInfo> load(String caminhoArquivo) throws Exception;
+    }
+
+    // =========================
+    // VERIFICAÇÃO
+    // =========================
+
+    public DocumentVerdict verify(String caminhoArquivo, SignatureSource source) throws Exception {
+        return verifyAll(List.of(caminhoArquivo), source).getDocumentos().get(0);
+    }
+
+    /**
+     * Verifica todas as assinaturas de todos os documentos. O lote só é
+     * válido se todo documento tiver ao menos uma assinatura e todas forem
+     * válidas.
+     */
+    public BatchVerdict verifyAll(List<String> caminhos, SignatureSource source) throws Exception {
+        if (caminhos == null || caminhos.isEmpty())
+            throw new ValidationException("Lote vazio");
+        if (caminhos.size() > maxItems)
+            throw new ValidationException("Lote muito grande. Máximo: " + maxItems + " documentos");
+
+        // 1) carrega os documentos em paralelo
+        List<Future<List<SignatureInfo>>> loads = new ArrayList<>(caminhos.size());
+        for (String caminho : caminhos) loads.add(executor.submit(() -> source.load(caminho)));
+
+        List<List<SignatureInfo>> signatures = new ArrayList<>(caminhos.size());
+        String[] loadErrors = new String[caminhos.size()];
+        for (int i = 0; i < loads.size(); i++) {
+            try {
+                signatures.add(await(loads.get(i)));
+            } catch (FileNotFoundException e) {
+                signatures.add(List.of());
+                loadErrors[i] = "Not found";
+            } catch (OverloadedException e) {
+                // sem orçamento para carregar: o lote inteiro volta como 429
+                loads.forEach(f -> f.cancel(true));
+                throw e;
+            } catch (Exception e) {
+                logger.warn("Falha ao carregar {} para verificação: {}", caminhos.get(i), e.getMessage());
+                signatures.add(List.of());
+                loadErrors[i] = "Falha ao ler as assinaturas";
+            }
+        }
+
+        // 2) verifica todas as assinaturas de todos os documentos em paralelo
+        List<List<Future<SignatureVerdict>>> checks = new ArrayList<>(caminhos.size());
+        for (List<SignatureInfo> docSignatures : signatures) {
+            List<Future<SignatureVerdict>> docChecks = new ArrayList<>(docSignatures.size());
+            for (SignatureInfo info : docSignatures) docChecks.add(executor.submit(() -> verify(info)));
+            checks.add(docChecks);
+        }
+
+        List<DocumentVerdict> documentos = new ArrayList<>(caminhos.size());
+        for (int i = 0; i < caminhos.size(); i++) {
+            List<SignatureVerdict> verdicts = new ArrayList<>();
+            for (Future<SignatureVerdict> check : checks.get(i)) verdicts.add(await(check));
+
+            boolean valid = loadErrors[i] == null && !verdicts.isEmpty()
+                    && verdicts.stream().allMatch(SignatureVerdict::valid);
+            String error = loadErrors[i] != null ? loadErrors[i]
+                    : verdicts.isEmpty() ? "Documento sem assinaturas" : null;
+            documentos.add(new DocumentVerdict(caminhos.get(i), valid, verdicts.size(), verdicts, error));
+        }
+        return new BatchVerdict(documentos);
+    }
+
+    private SignatureVerdict verify(SignatureInfo info) {
+        int index = info.getIndex();
+        String signer = info.getName();
+        try {
+            if (info.getPublicKeyBase64() == null)
+                return SignatureVerdict.invalid(index, signer, null,
+                        info.getPublicKeyFingerprint() != null ? "Chave pública não registrada" : "Chave pública ausente");
+            if (info.getToBeSignedBase64() == null || info.getSignatureBase64() == null)
+                return SignatureVerdict.invalid(index, signer, null, "ByteRange ou /Contents inválido");
+
+            MLDSAPublicKeyParameters key = resolveKey(info);
+            if (key == null)
+                return SignatureVerdict.invalid(index, signer, null, "Chave pública ML-DSA não reconhecida");
+
+            SignatureScheme scheme = SCHEMES.get(key.getParameters());
+            byte[] contents = Base64.getDecoder().decode(info.getSignatureBase64());
+            int length = scheme.getSignatureBytes();
+            if (contents.length < length)
+                return SignatureVerdict.invalid(index, signer, scheme, "Assinatura truncada");
+            for (int i = length; i < contents.length; i++) {
+                if (contents[i] != 0)
+                    return SignatureVerdict.invalid(index, signer, scheme, "Dados além da assinatura no /Contents");
+            }
+
+            byte[] message = Base64.getDecoder().decode(info.getToBeSignedBase64());
+            MLDSASigner verifier = new MLDSASigner();
+            verifier.init(false, key);
+            verifier.update(message, 0, message.length);
+            boolean valid = verifier.verifySignature(Arrays.copyOf(contents, length));
+
+            return valid ? new SignatureVerdict(index, signer, scheme.getDisplayName(), true, null)
+                         : SignatureVerdict.invalid(index, signer, scheme, "Assinatura não confere");
+
+        } catch (IllegalArgumentException e) {
+            return SignatureVerdict.invalid(index, signer, null, "Base64 inválido");
+        } catch (Exception e) {
+            logger.warn("Falha ao verificar assinatura #{}: {}", index, e.getMessage());
+            return SignatureVerdict.invalid(index, signer, null, "Falha na verificação");
+        }
+    }
+
+    /**
+     * Chave já decodificada do registro, pela impressão digital; sem ela,
+     * decodifica a chave inline.
+     */
+    private MLDSAPublicKeyParameters resolveKey(SignatureInfo info) {
+        if (info.getPublicKeyFingerprint() != null) {
+            var registered = keyRegistry.resolve(info.getPublicKeyFingerprint());
+            if (registered.isPresent()) return registered.get().parameters();
+        }
+        return decodePublicKey(Base64.getDecoder().decode(info.getPublicKeyBase64()));
+    }
+
+    /**
+     * Chave crua (1312/1952/2592 bytes) ou SubjectPublicKeyInfo com a chave
+     * crua no BIT STRING — direto ou num arquivo PEM, que é o que o cliente
+     * grava no PQC_PublicKey_N ("-----BEGIN ML-DSA-44 PUBLIC KEY-----").
+     */
+    static MLDSAPublicKeyParameters decodePublicKey(byte[] encoded) {
+        encoded = unwrapPem(encoded);
+        if (encoded == null) return null;
+
+        MLDSAParameters params = PARAMETERS_BY_KEY_SIZE.get(encoded.length);
+        if (params != null) return new MLDSAPublicKeyParameters(params, encoded);
+
+        try {
+            byte[] raw = SubjectPublicKeyInfo.getInstance(encoded).getPublicKeyData().getOctets();
+            params = PARAMETERS_BY_KEY_SIZE.get(raw.length);
+            return params == null ? null : new MLDSAPublicKeyParameters(params, raw);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Corpo Base64 de um PEM, decodificado; bytes que não são PEM voltam
+     * como vieram. PEM malformado devolve null.
+     */
+    static byte[] unwrapPem(byte[] encoded) {
+        int start = 0;
+        if (encoded.length >= 3 && (encoded[0] & 0xFF) == 0xEF
+                && (encoded[1] & 0xFF) == 0xBB && (encoded[2] & 0xFF) == 0xBF) start = 3;   // BOM UTF-8
+        while (start < encoded.length && Character.isWhitespace(encoded[start])) start++;
+        if (!startsWith(encoded, start, PEM_BEGIN)) return encoded;
+
+        String text = new String(encoded, start, encoded.length - start, StandardCharsets.US_ASCII);
+        int bodyStart = text.indexOf(PEM_DASHES, PEM_BEGIN.length);
+        int bodyEnd   = bodyStart < 0 ? -1 : text.indexOf("-----END ", bodyStart + PEM_DASHES.length());
+        if (bodyEnd < 0) return null;
+
+        String body = text.substring(bodyStart + PEM_DASHES.length(), bodyEnd).replaceAll("\\s+", "");
+        try {
+            return Base64.getDecoder().decode(body);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static boolean startsWith(byte[] data, int offset, byte[] prefix) {
+        if (data.length - offset < prefix.length) return false;
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[offset + i] != prefix[i]) return false;
+        }
+        return true;
+    }
+
+    private static <T> T await(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) throw ex;
+            if (cause instanceof Error err) throw err;
+            throw e;
+        }
+    }
+
+    // =========================
+    // RESULTADOS
+    // =========================
+
+    public record SignatureVerdict(int index, String signerName, String algorithm,
+                                   boolean valid, String error) {
+        static SignatureVerdict invalid(int index, String signer, SignatureScheme scheme, String error) {
+            return new SignatureVerdict(index, signer, scheme == null ? null : scheme.getDisplayName(), false, error);
+        }
+    }
+
+    public record DocumentVerdict(String caminhoArquivo, boolean valid, int signatureCount,
+                                  List<SignatureVerdict> signatures, String error) {}
+
+    public static class BatchVerdict {
+        private final List<DocumentVerdict> documentos;
+        private final long                  invalidos;
+
+        BatchVerdict(List<DocumentVerdict> documentos) {
+            this.documentos = documentos;
+            this.invalidos  = documentos.stream().filter(d -> !d.valid()).count();
+        }
+
+        public boolean isValid()                      { return invalidos == 0 && !documentos.isEmpty(); }
+        public int     getTotal()                     { return documentos.size(); }
+        public long    getInvalidos()                 { return invalidos; }
+        public List<DocumentVerdict> getDocumentos()  { return documentos; }
+    }
+}
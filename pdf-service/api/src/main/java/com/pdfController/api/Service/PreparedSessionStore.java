@@ -0,0 +1,295 @@
+package com.pdfController.api.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Sessões de preparação pendentes de /finalizar.
+ *
+ * Substitui os arquivos .cache/.algo/.meta gravados ao lado de cada PDF
+ * preparado: guarda só o que a finalização precisa (ByteRange, janela do
+ * /Contents, algoritmo e metadados) num registro binário pequeno, num
+ * diretório próprio, para sobreviver a um restart. Sessões expiram por TTL,
+ * o total é limitado, e uma limpeza periódica remove sessões vencidas e
+ * temporários órfãos de preparações abandonadas.
+ */
+@Component
+public class PreparedSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreparedSessionStore.class);
+
+    private static final int    FORMAT_VERSION = 1;
+    private static final String SESSION_SUFFIX = ".session";
+
+    /** Sidecars do formato anterior, removidos quando encontrados. */
+    private static final String[] LEGACY_SIDECARS = {".cache", ".algo", ".meta"};
+
+    /** Prefixos dos temporários criados por preparar/finalizar. */
+    private static final String[] TEMP_PREFIXES = {"pdf_sign_", "pdf_inc_"};
+
+    private final Path     directory;
+    private final Duration ttl;
+    private final int      maxSessions;
+    private final boolean  deleteExpiredPrepared;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    public PreparedSessionStore(
+            @Value("${pdf.session.dir:#{systemProperties['java.io.tmpdir']}/pdf-sessions}") String directory,
+            @Value("${pdf.session.ttl:PT1H}") Duration ttl,
+            @Value("${pdf.session.max-sessions:10000}") int maxSessions,
+            @Value("${pdf.session.delete-expired-prepared:true}") boolean deleteExpiredPrepared) {
+        this.directory             = Paths.get(directory);
+        this.ttl                   = ttl;
+        this.maxSessions           = maxSessions;
+        this.deleteExpiredPrepared = deleteExpiredPrepared;
+    }
+
+    /**
+     * Estado mínimo de uma preparação, suficiente para finalizar sem reler
+     * o PDF inteiro. {@code fingerprint} identifica a requisição que a
+     * criou.
+     */
+    public record Session(String preparedPath, long preparedSize, int[] byteRange,
+                          String algorithm, String signerName, String reason, String location,
+                          int signatureIndex, long createdAtMillis, String fingerprint) {
+
+        public long contentsStart()  { return byteRange[1]; }
+        public long contentsEnd()    { return byteRange[2]; }
+        public int  contentsLength() { return byteRange[2] - byteRange[1]; }
+    }
+
+    // =========================
+    // CICLO DE VIDA
+    // =========================
+
+    @PostConstruct
+    void load() throws IOException {
+        Files.createDirectories(directory);
+
+        int loaded = 0;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!file.getFileName().toString().endsWith(SESSION_SUFFIX)) continue;
+                try {
+                    Session s = read(file);
+                    sessions.put(s.preparedPath(), s);
+                    loaded++;
+                } catch (IOException e) {
+                    logger.warn("Sessão ilegível descartada: {} ({})", file.getFileName(), e.getMessage());
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        logger.info("PreparedSessionStore em {} — {} sessões recuperadas (TTL {}, máx. {})",
+                directory, loaded, ttl, maxSessions);
+        cleanup();
+    }
+
+    // =========================
+    // OPERAÇÕES
+    // =========================
+
+    public void save(Session session) throws IOException {
+        Path file = sessionFile(session.preparedPath());
+        Path tmp  = Files.createTempFile(directory, "session_", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                write(out, session);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        sessions.put(session.preparedPath(), session);
+        deleteLegacySidecars(session.preparedPath());
+        enforceCapacity();
+    }
+
+    /**
+     * Sessão válida (não expirada) do PDF preparado, se houver.
+     */
+    public Optional<Session> find(String preparedPath) {
+        Session s = sessions.get(normalize(preparedPath));
+        if (s == null) return Optional.empty();
+        if (isExpired(s)) {
+            expire(s);
+            return Optional.empty();
+        }
+        return Optional.of(s);
+    }
+
+    /**
+     * Indica se o PDF ainda tem os sidecars do formato anterior — preparações
+     * feitas antes da troca continuam finalizáveis.
+     */
+    public boolean hasLegacySidecars(String preparedPath) {
+        return Files.exists(Paths.get(preparedPath + ".cache"))
+                && Files.exists(Paths.get(preparedPath + ".algo"));
+    }
+
+    public void remove(String preparedPath) {
+        String key = normalize(preparedPath);
+        sessions.remove(key);
+        try {
+            Files.deleteIfExists(sessionFile(key));
+        } catch (IOException e) {
+            logger.warn("Falha ao remover sessão de {}: {}", key, e.getMessage());
+        }
+        deleteLegacySidecars(key);
+    }
+
+    public int size() { return sessions.size(); }
+
+    public static String normalize(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+
+    // =========================
+    // LIMPEZA
+    // =========================
+
+    @Scheduled(fixedDelayString = "${pdf.session.cleanup-interval:PT5M}",
+               initialDelayString = "${pdf.session.cleanup-interval:PT5M}")
+    public void cleanup() {
+        int expired = 0;
+        for (Session s : List.copyOf(sessions.values())) {
+            if (isExpired(s)) { expire(s); expired++; }
+        }
+
+        int orphans = deleteOrphanTempFiles();
+        if (expired > 0 || orphans > 0)
+            logger.info("Limpeza de sessões: {} expiradas, {} temporários órfãos removidos", expired, orphans);
+    }
+
+    private void enforceCapacity() {
+        int excess = sessions.size() - maxSessions;
+        if (excess <= 0) return;
+
+        sessions.values().stream()
+                .sorted(Comparator.comparingLong(Session::createdAtMillis))
+                .limit(excess)
+                .toList()
+                .forEach(this::expire);
+    }
+
+    private boolean isExpired(Session s) {
+        return Instant.ofEpochMilli(s.createdAtMillis()).plus(ttl).isBefore(Instant.now());
+    }
+
+    private void expire(Session s) {
+        remove(s.preparedPath());
+        if (!deleteExpiredPrepared) return;
+
+        // Só apaga o PDF preparado se ele continua exatamente como foi gerado
+        try {
+            Path prepared = Paths.get(s.preparedPath());
+            if (Files.isRegularFile(prepared) && Files.size(prepared) == s.preparedSize())
+                Files.delete(prepared);
+        } catch (IOException e) {
+            logger.warn("Falha ao remover PDF preparado expirado {}: {}", s.preparedPath(), e.getMessage());
+        }
+    }
+
+    private int deleteOrphanTempFiles() {
+        Path tmpDir = Paths.get(System.getProperty("java.io.tmpdir"));
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int removed = 0;
+
+        try (Stream<Path> files = Files.list(tmpDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".pdf") || Arrays.stream(TEMP_PREFIXES).noneMatch(name::startsWith))
+                    continue;
+                try {
+                    if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file))
+                        removed++;
+                } catch (IOException ignored) {}
+            }
+        } catch (IOException e) {
+            logger.warn("Falha ao varrer temporários em {}: {}", tmpDir, e.getMessage());
+        }
+        return removed;
+    }
+
+    private void deleteLegacySidecars(String preparedPath) {
+        for (String ext : LEGACY_SIDECARS) {
+            try { Files.deleteIfExists(Paths.get(preparedPath + ext)); }
+            catch (IOException ignored) {}
+        }
+    }
+
+    // =========================
+    // FORMATO BINÁRIO
+    // =========================
+
+    private Path sessionFile(String preparedPath) {
+        try {
+            byte[] h = MessageDigest.getInstance("SHA-256")
+                    .digest(normalize(preparedPath).getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(h, 0, 16) + SESSION_SUFFIX);
+        } catch (java.security.NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void write(DataOutputStream out, Session s) throws IOException {
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(s.preparedPath());
+        out.writeLong(s.preparedSize());
+        for (int v : s.byteRange()) out.writeInt(v);
+        out.writeUTF(nullToEmpty(s.algorithm()));
+        out.writeUTF(nullToEmpty(s.signerName()));
+        out.writeUTF(nullToEmpty(s.reason()));
+        out.writeUTF(nullToEmpty(s.location()));
+        out.writeInt(s.signatureIndex());
+        out.writeLong(s.createdAtMillis());
+        out.writeUTF(nullToEmpty(s.fingerprint()));
+    }
+
+    private static Session read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readUnsignedByte();
+            if (version != FORMAT_VERSION)
+                throw new IOException("versão de sessão desconhecida: " + version);
+
+            String preparedPath = in.readUTF();
+            long   size         = in.readLong();
+            int[]  byteRange    = {in.readInt(), in.readInt(), in.readInt(), in.readInt()};
+            String algorithm  = emptyToNull(in.readUTF());
+            String signerName = emptyToNull(in.readUTF());
+            String reason     = emptyToNull(in.readUTF());
+            String location   = emptyToNull(in.readUTF());
+            int    index      = in.readInt();
+            long   createdAt  = in.readLong();
+            String fingerprint = emptyToNull(in.readUTF());
+            return new Session(preparedPath, size, byteRange, algorithm, signerName, reason, location,
+                    index, createdAt, fingerprint);
+        } catch (EOFException e) {
+            throw new IOException("sessão truncada", e);
+        }
+    }
+
+    private static String nullToEmpty(String s) { return s == null ? "" : s; }
+
+    private static String emptyToNull(String s) { return s.isEmpty() ? null : s; }
+}
@@ -0,0 +1,235 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.ValidationException;
+import jakarta.annotation.PostConstruct;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAPublicKeyParameters;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Registro local de chaves públicas, endereçado pela impressão digital
+ * ("sha256:" + SHA-256 da chave crua — a mesma chave em SubjectPublicKeyInfo
+ * ou em PEM, como o cliente envia, tem a mesma impressão digital).
+ *
+ * As chaves ficam em disco ({@code <dir>/ab/abcd….key}, bytes crus) e, já
+ * decodificadas, num LRU em memória limitado a pdf.keys.max-interned: cada
+ * chave quente existe uma única vez, por mais documentos e assinantes que a
+ * usem, e a verificação a resolve pela impressão digital sem decodificar
+ * de novo. Uma chave desalojada volta do disco quando for pedida.
+ *
+ * Com {@code pdf.keys.embed=fingerprint}, o campo PQC_PublicKey_N do PDF
+ * guarda só a impressão digital (71 caracteres) em vez da chave inteira.
+ */
+@Component
+public class PublicKeyRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublicKeyRegistry.class);
+
+    public  static final String  FINGERPRINT_PREFIX = "sha256:";
+    private static final Pattern FINGERPRINT_HEX    = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path    directory;
+    private final boolean embedFingerprint;
+
+    private final Map<String, RegisteredKey> keys;
+
+    public PublicKeyRegistry(
+            @Value("${pdf.keys.dir:#{systemProperties['java.io.tmpdir']}/pdf-keys}") String directory,
+            @Value("${pdf.keys.embed:inline}") String embed,
+            @Value("${pdf.keys.max-interned:10000}") int maxInterned) {
+        this.directory        = Paths.get(directory);
+        this.embedFingerprint = "fingerprint".equalsIgnoreCase(embed.trim());
+        this.keys             = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RegisteredKey> eldest) {
+                return size() > maxInterned;
+            }
+        });
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        logger.info("Registro de chaves públicas em {} (embed={})", directory,
+                embedFingerprint ? "fingerprint" : "inline");
+    }
+
+    /**
+     * Chave registrada. {@code parameters} é a chave ML-DSA pronta para o
+     * verificador, ou null se o formato não for ML-DSA.
+     */
+    public record RegisteredKey(String fingerprint, String publicKeyBase64, MLDSAPublicKeyParameters parameters) {
+
+        public String algorithm() {
+            if (parameters == null) return null;
+            MLDSAParameters p = parameters.getParameters();
+            SignatureScheme scheme = p == MLDSAParameters.ml_dsa_44 ? SignatureScheme.ML_DSA_44
+                    : p == MLDSAParameters.ml_dsa_65 ? SignatureScheme.ML_DSA_65
+                    : SignatureScheme.ML_DSA_87;
+            return scheme.getDisplayName();
+        }
+    }
+
+    /** O PDF deve guardar só a impressão digital no campo da chave? */
+    public boolean embedsFingerprint() { return embedFingerprint; }
+
+    /** Valor do campo PQC_PublicKey_N é uma referência ao registro, não a chave? */
+    public static boolean isReference(String fieldValue) {
+        return fieldValue != null && fieldValue.startsWith(FINGERPRINT_PREFIX);
+    }
+
+    // =========================
+    // REGISTRAR
+    // =========================
+
+    /**
+     * Registra a chave (memória + disco) e devolve a entrada canônica.
+     * Registrar a mesma chave de novo não grava nada.
+     */
+    public RegisteredKey register(String publicKeyBase64) throws ValidationException, IOException {
+        return register(canonical(publicKeyBase64));
+    }
+
+    /**
+     * Registra uma entrada já canônica (de {@link #intern} ou {@link #resolve})
+     * sem decodificar a chave de novo.
+     */
+    public RegisteredKey register(RegisteredKey key) throws IOException {
+        key = remember(key);
+
+        Path file = keyPath(hexOf(key.fingerprint));
+        if (!Files.exists(file)) {
+            writeKey(file, Base64.getDecoder().decode(key.publicKeyBase64));
+            logger.info("Chave pública registrada fingerprint={} algorithm={}", key.fingerprint, key.algorithm());
+        }
+        return key;
+    }
+
+    /**
+     * Entrada canônica de uma chave lida de um documento, só em memória:
+     * documentos diferentes com a mesma chave passam a compartilhar a
+     * mesma instância decodificada.
+     */
+    public RegisteredKey intern(String publicKeyBase64) throws ValidationException {
+        return remember(canonical(publicKeyBase64));
+    }
+
+    /** Instância já em memória com a mesma impressão digital, ou esta, guardada no LRU. */
+    private RegisteredKey remember(RegisteredKey key) {
+        RegisteredKey known = keys.putIfAbsent(key.fingerprint, key);
+        return known != null ? known : key;
+    }
+
+    // =========================
+    // RESOLVER
+    // =========================
+
+    /**
+     * Chave pela impressão digital ("sha256:…" ou só o hex): memória e,
+     * se não estiver carregada, o arquivo em disco.
+     */
+    public Optional<RegisteredKey> resolve(String fingerprint) {
+        String hex = hexOf(fingerprint);
+        if (hex == null) return Optional.empty();
+
+        RegisteredKey cached = keys.get(FINGERPRINT_PREFIX + hex);
+        if (cached != null) return Optional.of(cached);
+
+        Path file = keyPath(hex);
+        if (!Files.isRegularFile(file)) return Optional.empty();
+        try {
+            RegisteredKey key = canonical(Base64.getEncoder().encodeToString(Files.readAllBytes(file)));
+            if (!key.fingerprint.equals(FINGERPRINT_PREFIX + hex)) {
+                logger.warn("Chave em disco não confere com a impressão digital {}", hex);
+                return Optional.empty();
+            }
+            return Optional.of(remember(key));
+        } catch (IOException | ValidationException e) {
+            logger.warn("Falha ao carregar chave {}: {}", hex, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // =========================
+    // CANONIZAÇÃO E ARQUIVOS
+    // =========================
+
+    /**
+     * ML-DSA (crua ou SPKI, em DER ou PEM) vira a chave crua; de outros
+     * formatos fica o DER (o corpo do PEM, se vier em PEM). A impressão
+     * digital é o SHA-256 desses bytes.
+     */
+    private static RegisteredKey canonical(String publicKeyBase64) throws ValidationException {
+        if (publicKeyBase64 == null || publicKeyBase64.isBlank())
+            throw new ValidationException("Chave pública ausente");
+
+        byte[] encoded;
+        try {
+            encoded = Base64.getDecoder().decode(publicKeyBase64.trim());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Chave pública não está em Base64");
+        }
+        if (encoded.length == 0)
+            throw new ValidationException("Chave pública ausente");
+
+        byte[] der = PqcSignatureVerifier.unwrapPem(encoded);
+        if (der == null || der.length == 0)
+            throw new ValidationException("Chave pública PEM malformada");
+
+        MLDSAPublicKeyParameters parameters = PqcSignatureVerifier.decodePublicKey(der);
+        byte[] raw = parameters != null ? parameters.getEncoded() : der;
+
+        return new RegisteredKey(FINGERPRINT_PREFIX + sha256Hex(raw),
+                Base64.getEncoder().encodeToString(raw), parameters);
+    }
+
+    private static String hexOf(String fingerprint) {
+        if (fingerprint == null) return null;
+        String hex = fingerprint.trim().toLowerCase(Locale.ROOT);
+        if (hex.startsWith(FINGERPRINT_PREFIX)) hex = hex.substring(FINGERPRINT_PREFIX.length());
+        return FINGERPRINT_HEX.matcher(hex).matches() ? hex : null;
+    }
+
+    private Path keyPath(String hex) {
+        return directory.resolve(hex.substring(0, 2)).resolve(hex + ".key");
+    }
+
+    private void writeKey(Path file, byte[] raw) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), "key_", ".tmp");
+        try {
+            Files.write(tmp, raw);
+            try {
+                Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException ignored) {
+                // registrada em paralelo com o mesmo conteúdo
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
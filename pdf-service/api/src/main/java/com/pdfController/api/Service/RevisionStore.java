@@ -0,0 +1,521 @@
+package com.pdfController.api.Service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Armazenamento endereçado por conteúdo das revisões dos PDFs.
+ *
+ * Cada assinatura só acrescenta bytes ao fim do PDF anterior, então uma
+ * revisão é guardada como o delta em relação à maior revisão já conhecida
+ * que seja prefixo dela — o documento base uma vez, e depois só os bytes
+ * anexados. Revisões e blobs são identificados pelo SHA-256 do conteúdo:
+ * o mesmo PDF armazenado duas vezes não ocupa espaço de novo.
+ *
+ * <pre>
+ *   objects/ab/abcd…     blobs (base completa ou bytes anexados)
+ *   revisions/&lt;id&gt;.rev   parent, blob, offset e tamanho de cada revisão
+ * </pre>
+ *
+ * Os prefixos candidatos são os fins de revisão (%%EOF) do arquivo; os
+ * hashes de todos eles saem da mesma leitura que calcula o hash do todo.
+ * Qualquer revisão é remontada em streaming a partir da base + deltas.
+ *
+ * As cópias completas que o armazenamento torna redundantes ficam no
+ * caminho de sempre por pdf.revisions.copy-retention e depois são
+ * removidas: o _prepared logo após o finalizar; o _signed só depois que
+ * uma revisão-filha for armazenada — a revisão mais nova de cada documento
+ * continua em disco para o próximo /preparar ou /verificar, e as antigas
+ * saem de GET /revisoes/{id}. A lista de remoções é um diário em
+ * {@code retired.log}, relido no restart e compactado na limpeza.
+ */
+@Component
+public class RevisionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevisionStore.class);
+
+    private static final Pattern REVISION_ID = Pattern.compile("[0-9a-f]{64}");
+    private static final byte[]  EOF_MARKER  = "%%EOF".getBytes(StandardCharsets.US_ASCII);
+    private static final int     BUFFER      = 64 * 1024;
+
+    private final boolean  enabled;
+    private final Path     objects;
+    private final Path     revisions;
+    private final Duration copyRetention;
+
+    private final Path     retiredLog;
+
+    /** Revisões já lidas do disco — LRU limitado, o disco é a fonte. */
+    private final Map<String, Revision> cache;
+
+    /**
+     * Último id calculado por arquivo (caminho + tamanho + mtime), para não
+     * re-hashear. Só os mais recentes interessam: LRU limitado.
+     */
+    private final Map<String, String> idsByFile;
+
+    /** Cópias com prazo de remoção, em ordem de registro. Guardadas por {@code this}. */
+    private final List<RetiredCopy> dueCopies = new ArrayList<>();
+
+    /** Cópias que só vencem quando uma filha da revisão (chave) for armazenada. */
+    private final Map<String, List<RetiredCopy>> awaitingChild = new HashMap<>();
+
+    public RevisionStore(
+            @Value("${pdf.revisions.enabled:false}") boolean enabled,
+            @Value("${pdf.revisions.dir:#{systemProperties['java.io.tmpdir']}/pdf-revisions}") String directory,
+            @Value("${pdf.revisions.max-tracked-files:10000}") int maxTrackedFiles,
+            @Value("${pdf.revisions.max-cached:10000}") int maxCached,
+            @Value("${pdf.revisions.copy-retention:PT1H}") Duration copyRetention) {
+        this.enabled       = enabled;
+        this.objects       = Paths.get(directory, "objects");
+        this.revisions     = Paths.get(directory, "revisions");
+        this.retiredLog    = Paths.get(directory, "retired.log");
+        this.copyRetention = copyRetention;
+        this.cache         = lru(maxCached);
+        this.idsByFile     = lru(maxTrackedFiles);
+    }
+
+    private static <K, V> Map<K, V> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) return;
+        Files.createDirectories(objects);
+        Files.createDirectories(revisions);
+        int pending = loadRetiredLog();
+        logger.info("Armazenamento de revisões ativo em {} ({} cópias com remoção pendente)",
+                revisions.getParent(), pending);
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    /**
+     * Revisão: o conteúdo completo é o da revisão {@code parent} (ou nada,
+     * na base) seguido do blob {@code blob}, que começa em {@code offset}.
+     */
+    public record Revision(String id, String parent, String blob, long offset, long length) {
+        public boolean isBase() { return parent == null; }
+        public long deltaLength() { return length - offset; }
+    }
+
+    // =========================
+    // ARMAZENAR
+    // =========================
+
+    /**
+     * Armazena o PDF como revisão e devolve o id (SHA-256 do conteúdo).
+     * Se já existir, nada é gravado. Roda fora do lock do documento: as duas
+     * leituras (hash e blob) usam o mesmo canal aberto, e um arquivo trocado
+     * por move atômico no meio não mistura conteúdos.
+     */
+    public String store(Path pdf) throws IOException {
+        try (FileChannel channel = FileChannel.open(pdf, StandardOpenOption.READ)) {
+            String fileKey = fileKey(pdf);
+            String known   = idsByFile.get(fileKey);
+            if (known != null && exists(known)) return known;
+
+            String id = store(channel);
+            idsByFile.put(fileKey, id);
+
+            // A revisão-pai deixou de ser a mais nova: as cópias dela vencem
+            Revision revision = find(id);
+            if (revision != null && revision.parent != null) superseded(revision.parent);
+            return id;
+        }
+    }
+
+    private String store(FileChannel pdf) throws IOException {
+        Scan scan = scan(pdf);
+        String id = scan.id;
+        if (!exists(id)) {
+            Revision parent = null;
+            for (int i = scan.prefixes.size() - 1; i >= 0 && parent == null; i--) {
+                Prefix p = scan.prefixes.get(i);
+                if (p.offset >= scan.length) continue;
+                Revision candidate = find(p.hash);
+                if (candidate != null && candidate.length == p.offset) parent = candidate;
+            }
+
+            long offset = parent == null ? 0 : parent.length;
+            String blob = writeBlob(pdf, offset);
+            Revision revision = new Revision(id, parent == null ? null : parent.id, blob, offset, scan.length);
+            writeRevision(revision);
+
+            logger.info("Revisão armazenada id={} parent={} delta={} total={}",
+                    id, revision.parent, revision.deltaLength(), revision.length);
+        }
+        return id;
+    }
+
+    // =========================
+    // CÓPIAS COMPLETAS
+    // =========================
+
+    /**
+     * Cópia completa a remover se ainda estiver como foi registrada. Com
+     * {@code awaiting}, espera uma filha dessa revisão; senão vence em
+     * {@code deadline}.
+     */
+    private record RetiredCopy(Path path, String fileKey, String awaiting, long deadline) {}
+
+    /**
+     * Registra cópias já redundantes para remoção após
+     * pdf.revisions.copy-retention. Só são removidas se não tiverem mudado
+     * desde o registro — um novo preparar/finalizar no mesmo caminho fica.
+     */
+    public synchronized void retire(Path... copies) {
+        if (!enabled) return;
+        long deadline = System.currentTimeMillis() + copyRetention.toMillis();
+        for (Path copy : copies) {
+            try {
+                RetiredCopy retired = new RetiredCopy(copy, fileKey(copy), null, deadline);
+                dueCopies.add(retired);
+                journal(retired);
+            } catch (IOException ignored) {
+                // já removida
+            }
+        }
+    }
+
+    /**
+     * Registra uma cópia já armazenada que só fica redundante quando uma
+     * revisão-filha for armazenada: até lá é a versão mais nova do documento.
+     */
+    public synchronized void retireWhenSuperseded(Path copy) {
+        if (!enabled) return;
+        try {
+            String fileKey = fileKey(copy);
+            String id = idsByFile.get(fileKey);
+            if (id == null) return;
+            RetiredCopy retired = new RetiredCopy(copy, fileKey, id, 0);
+            awaitingChild.computeIfAbsent(id, k -> new ArrayList<>()).add(retired);
+            journal(retired);
+        } catch (IOException ignored) {
+            // já removida
+        }
+    }
+
+    private synchronized void superseded(String parentId) {
+        List<RetiredCopy> copies = awaitingChild.remove(parentId);
+        if (copies == null) return;
+        long deadline = System.currentTimeMillis() + copyRetention.toMillis();
+        for (RetiredCopy c : copies) {
+            RetiredCopy due = new RetiredCopy(c.path, c.fileKey, null, deadline);
+            dueCopies.add(due);
+            try {
+                journal(due);
+            } catch (IOException e) {
+                logger.warn("Falha ao registrar remoção de {}: {}", c.path, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pdf.session.cleanup-interval:PT5M}",
+               initialDelayString = "${pdf.session.cleanup-interval:PT5M}")
+    public synchronized void cleanup() {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+        int removed = 0;
+        for (Iterator<RetiredCopy> it = dueCopies.iterator(); it.hasNext(); ) {
+            RetiredCopy copy = it.next();
+            if (copy.deadline > now) continue;
+            it.remove();
+            try {
+                if (copy.fileKey.equals(fileKey(copy.path)) && Files.deleteIfExists(copy.path)) removed++;
+            } catch (IOException ignored) {
+                // já removida ou substituída
+            }
+        }
+        try {
+            compactRetiredLog();
+        } catch (IOException e) {
+            logger.warn("Falha ao compactar {}: {}", retiredLog, e.getMessage());
+        }
+        if (removed > 0) logger.info("Limpeza de revisões: {} cópias completas removidas", removed);
+    }
+
+    /*
+     * Diário: uma linha por registro, "awaiting|deadline|fileKey", com
+     * awaiting vazio nas cópias com prazo; o caminho da cópia é o do
+     * fileKey. Uma cópia que passou a ter prazo aparece de novo sem
+     * awaiting — a última linha da mesma cópia vale.
+     */
+
+    private void journal(RetiredCopy copy) throws IOException {
+        Files.writeString(retiredLog, line(copy), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String line(RetiredCopy c) {
+        return (c.awaiting == null ? "" : c.awaiting) + "|" + c.deadline + "|" + c.fileKey + "\n";
+    }
+
+    private int loadRetiredLog() throws IOException {
+        if (!Files.isRegularFile(retiredLog)) return 0;
+        Map<String, RetiredCopy> latest = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(retiredLog, StandardCharsets.UTF_8)) {
+            String[] f = line.split("\\|", 3);
+            try {
+                // fileKey = caminho|tamanho|mtime
+                int mtime = f[2].lastIndexOf('|');
+                Path path = Paths.get(f[2].substring(0, f[2].lastIndexOf('|', mtime - 1)));
+                RetiredCopy c = new RetiredCopy(path, f[2], f[0].isEmpty() ? null : f[0], Long.parseLong(f[1]));
+                latest.remove(c.fileKey);
+                latest.put(c.fileKey, c);
+            } catch (RuntimeException ignored) {
+                // linha truncada por uma queda no meio da escrita
+            }
+        }
+        for (RetiredCopy c : latest.values()) {
+            if (c.awaiting == null) dueCopies.add(c);
+            else awaitingChild.computeIfAbsent(c.awaiting, k -> new ArrayList<>()).add(c);
+        }
+        compactRetiredLog();
+        return latest.size();
+    }
+
+    private void compactRetiredLog() throws IOException {
+        StringBuilder content = new StringBuilder();
+        dueCopies.forEach(c -> content.append(line(c)));
+        awaitingChild.values().forEach(list -> list.forEach(c -> content.append(line(c))));
+
+        Path tmp = Files.createTempFile(revisions, "retired_", ".tmp");
+        try {
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, retiredLog, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Id da revisão de um arquivo já armazenado sem mudanças desde então.
+     */
+    public Optional<String> idOf(Path pdf) {
+        try {
+            return Optional.ofNullable(idsByFile.get(fileKey(pdf)));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    // =========================
+    // REMONTAR
+    // =========================
+
+    public Optional<Revision> get(String id) throws IOException {
+        return Optional.ofNullable(find(id));
+    }
+
+    /**
+     * Stream com o conteúdo completo da revisão: base seguida dos deltas,
+     * lidos direto dos blobs, sem montar o PDF em memória nem em disco.
+     */
+    public InputStream open(String id) throws IOException {
+        Deque<Revision> chain = new ArrayDeque<>();
+        for (Revision r = require(id); r != null; r = r.parent == null ? null : require(r.parent))
+            chain.addFirst(r);
+
+        List<InputStream> parts = new ArrayList<>(chain.size());
+        try {
+            for (Revision r : chain) parts.add(new BufferedInputStream(Files.newInputStream(blobPath(r.blob)), BUFFER));
+        } catch (IOException e) {
+            for (InputStream in : parts) in.close();
+            throw e;
+        }
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    private Revision require(String id) throws IOException {
+        Revision r = find(id);
+        if (r == null) throw new FileNotFoundException("Revisão não encontrada: " + id);
+        return r;
+    }
+
+    private boolean exists(String id) throws IOException {
+        return find(id) != null;
+    }
+
+    private Revision find(String id) throws IOException {
+        if (id == null || !REVISION_ID.matcher(id).matches()) return null;
+        Revision cached = cache.get(id);
+        if (cached != null) return cached;
+
+        Path file = revisionPath(id);
+        if (!Files.isRegularFile(file)) return null;
+
+        Properties p = new Properties();
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.US_ASCII)) {
+            p.load(in);
+        }
+        String parent = p.getProperty("parent");
+        Revision r = new Revision(id, parent == null || parent.isEmpty() ? null : parent,
+                p.getProperty("blob"), Long.parseLong(p.getProperty("offset")),
+                Long.parseLong(p.getProperty("length")));
+        cache.put(id, r);
+        return r;
+    }
+
+    // =========================
+    // ARQUIVOS
+    // =========================
+
+    private record Prefix(long offset, String hash) {}
+
+    private record Scan(String id, long length, List<Prefix> prefixes) {}
+
+    /**
+     * Hash do arquivo inteiro e dos prefixos que terminam logo depois de
+     * cada %%EOF (com e sem a quebra de linha), numa única leitura.
+     */
+    private static Scan scan(FileChannel pdf) throws IOException {
+        MessageDigest digest = sha256();
+        List<Prefix> prefixes = new ArrayList<>();
+
+        byte[] buffer = new byte[BUFFER];
+        long position = 0;     // bytes já entregues ao digest
+        int  matched  = 0;     // progresso no casamento de "%%EOF"
+        int  afterEof = -1;    // bytes de quebra de linha vistos após um %%EOF
+
+        // O canal é do chamador: fechar o stream fecharia o canal
+        InputStream in = Channels.newInputStream(pdf.position(0));
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            int flushed = 0;
+            for (int i = 0; i < read; i++) {
+                byte b = buffer[i];
+                boolean snapshot = false;
+
+                if (afterEof >= 0 && afterEof < 2 && (b == '\r' || b == '\n')) {
+                    afterEof++;
+                    snapshot = true;
+                } else {
+                    afterEof = -1;
+                }
+
+                if (b == EOF_MARKER[matched]) {
+                    matched++;
+                    if (matched == EOF_MARKER.length) {
+                        matched  = 0;
+                        afterEof = 0;
+                        snapshot = true;
+                    }
+                } else {
+                    matched = b == EOF_MARKER[0] ? 1 : 0;
+                }
+
+                if (snapshot) {
+                    digest.update(buffer, flushed, i + 1 - flushed);
+                    position += i + 1 - flushed;
+                    flushed = i + 1;
+                    prefixes.add(new Prefix(position, hex(clone(digest).digest())));
+                }
+            }
+            digest.update(buffer, flushed, read - flushed);
+            position += read - flushed;
+        }
+        return new Scan(hex(digest.digest()), position, prefixes);
+    }
+
+    /**
+     * Grava os bytes de {@code offset} até o fim como blob, se ainda não existir.
+     */
+    private String writeBlob(FileChannel pdf, long offset) throws IOException {
+        Path tmp = Files.createTempFile(objects, "blob_", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            InputStream in = Channels.newInputStream(pdf.position(offset));
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                byte[] buffer = new byte[BUFFER];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String hash = hex(digest.digest());
+            Path target = blobPath(hash);
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException ignored) {
+                    // gravado em paralelo com o mesmo conteúdo
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void writeRevision(Revision r) throws IOException {
+        String content = "parent=" + (r.parent == null ? "" : r.parent) + "\n"
+                + "blob=" + r.blob + "\n"
+                + "offset=" + r.offset + "\n"
+                + "length=" + r.length + "\n";
+        Path tmp = Files.createTempFile(revisions, "rev_", ".tmp");
+        try {
+            Files.writeString(tmp, content, StandardCharsets.US_ASCII);
+            Files.move(tmp, revisionPath(r.id), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        cache.put(r.id, r);
+    }
+
+    private Path blobPath(String hash) {
+        return objects.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Path revisionPath(String id) {
+        return revisions.resolve(id + ".rev");
+    }
+
+    private static String fileKey(Path pdf) throws IOException {
+        return pdf.toAbsolutePath().normalize() + "|" + Files.size(pdf) + "|"
+                + Files.getLastModifiedTime(pdf).toMillis();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static MessageDigest clone(MessageDigest digest) {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+}
@@ -0,0 +1,140 @@
+package com.pdfController.api.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.*;
+
+/**
+ * Calcula o digest de vários /ByteRange de um mesmo PDF numa única
+ * passada sequencial pelo arquivo.
+ *
+ * Em assinaturas incrementais, a assinatura #i cobre [0, a) + [b, e) e toda
+ * assinatura posterior começa pelo mesmo prefixo [0, a). Um digest
+ * "principal" percorre o arquivo inteiro; ao chegar em {@code a} de cada
+ * assinatura ele é clonado, e o clone — que pula a janela do /Contents —
+ * passa a receber os mesmos blocos lidos de [b, e). Com N assinaturas o
+ * custo fica perto de uma leitura do arquivo, em vez de N.
+ */
+public final class SharedPrefixDigest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SharedPrefixDigest() {}
+
+    /**
+     * Digests na mesma ordem de {@code byteRanges}. Posições com ByteRange
+     * inválido ou fora do arquivo ficam {@code null}.
+     */
+    public static byte[][] digestAll(FileChannel channel, List<int[]> byteRanges) throws IOException {
+        long size = channel.size();
+        int  n    = byteRanges.size();
+        byte[][] result = new byte[n][];
+
+        // ByteRanges que não começam em 0 não compartilham prefixo:
+        // são calculados isoladamente.
+        List<Integer> shared = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            int[] br = byteRanges.get(i);
+            if (!isUsable(br, size)) continue;
+            if (br[0] == 0) shared.add(i);
+            else result[i] = ByteRangeDigest.digest(channel, br);
+        }
+        if (shared.isEmpty()) return result;
+
+        try {
+            digestShared(channel, byteRanges, shared, result);
+        } catch (CloneNotSupportedException e) {
+            // Provider sem clone(): volta para um digest independente por assinatura
+            for (int i : shared) result[i] = ByteRangeDigest.digest(channel, byteRanges.get(i));
+        }
+        return result;
+    }
+
+    private static void digestShared(FileChannel channel, List<int[]> byteRanges,
+                                     List<Integer> shared, byte[][] result)
+            throws IOException, CloneNotSupportedException {
+
+        // Pontos de corte: início da janela (a), fim da janela (b) e fim (e)
+        TreeSet<Long> cuts = new TreeSet<>();
+        long lastFork = 0;
+        for (int i : shared) {
+            int[] br = byteRanges.get(i);
+            cuts.add((long) br[1]);
+            cuts.add((long) br[2]);
+            cuts.add((long) br[2] + br[3]);
+            lastFork = Math.max(lastFork, br[1]);
+        }
+
+        MessageDigest main   = ByteRangeDigest.newDigest();
+        ByteBuffer    buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        // Clones pendentes (aguardando b) e ativos (entre b e e)
+        Map<Integer, MessageDigest> forks = new HashMap<>();
+
+        long pos = 0;
+        for (long cut : cuts) {
+            if (cut > pos) {
+                feed(channel, pos, cut - pos, buffer, main, pos < lastFork,
+                        activeDigests(byteRanges, forks, pos));
+                pos = cut;
+            }
+
+            for (int i : shared) {
+                int[] br  = byteRanges.get(i);
+                long  end = (long) br[2] + br[3];
+                if (br[1] == cut && !forks.containsKey(i)) {
+                    forks.put(i, (MessageDigest) main.clone());
+                }
+                if (end == cut && forks.containsKey(i) && result[i] == null) {
+                    result[i] = forks.get(i).digest();
+                }
+            }
+        }
+    }
+
+    /** Clones cujo intervalo [b, e) contém a posição atual. */
+    private static List<MessageDigest> activeDigests(List<int[]> byteRanges,
+                                                     Map<Integer, MessageDigest> forks, long pos) {
+        List<MessageDigest> active = new ArrayList<>(2);
+        for (Map.Entry<Integer, MessageDigest> fork : forks.entrySet()) {
+            int[] br = byteRanges.get(fork.getKey());
+            if (pos >= br[2] && pos < (long) br[2] + br[3]) active.add(fork.getValue());
+        }
+        return active;
+    }
+
+    private static void feed(FileChannel channel, long position, long length, ByteBuffer buffer,
+                             MessageDigest main, boolean mainNeeded,
+                             List<MessageDigest> active) throws IOException {
+        if (!mainNeeded && active.isEmpty()) return;
+
+        long remaining = length;
+        long pos       = position;
+        while (remaining > 0) {
+            buffer.clear();
+            if (remaining < buffer.capacity()) buffer.limit((int) remaining);
+
+            int read = channel.read(buffer, pos);
+            if (read < 0)
+                throw new EOFException("Fim do arquivo antes do fim do ByteRange (pos=" + pos + ")");
+
+            if (mainNeeded) main.update(buffer.array(), 0, read);
+            for (MessageDigest md : active) md.update(buffer.array(), 0, read);
+
+            pos       += read;
+            remaining -= read;
+        }
+    }
+
+    private static boolean isUsable(int[] br, long size) {
+        try {
+            ByteRangeDigest.validate(br, size);
+            return br[2] >= br[0] + br[1];
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pdfController.api.Service;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Esquemas de assinatura aceitos e o tamanho da assinatura de cada um
+ * (FIPS 204 para ML-DSA, FIPS 205 para SLH-DSA). O /Contents reservado no
+ * preparar tem exatamente esse tamanho — nem a folga do maior esquema,
+ * nem o padrão do DSS.
+ */
+public enum SignatureScheme {
+
+    ML_DSA_44("ML-DSA-44", 2420),
+    ML_DSA_65("ML-DSA-65", 3309),
+    ML_DSA_87("ML-DSA-87", 4627),
+
+    SLH_DSA_SHA2_128S ("SLH-DSA-SHA2-128s",   7856),
+    SLH_DSA_SHAKE_128S("SLH-DSA-SHAKE-128s",  7856),
+    SLH_DSA_SHA2_128F ("SLH-DSA-SHA2-128f",  17088),
+    SLH_DSA_SHAKE_128F("SLH-DSA-SHAKE-128f", 17088),
+    SLH_DSA_SHA2_192S ("SLH-DSA-SHA2-192s",  16224),
+    SLH_DSA_SHAKE_192S("SLH-DSA-SHAKE-192s", 16224),
+    SLH_DSA_SHA2_192F ("SLH-DSA-SHA2-192f",  35664),
+    SLH_DSA_SHAKE_192F("SLH-DSA-SHAKE-192f", 35664),
+    SLH_DSA_SHA2_256S ("SLH-DSA-SHA2-256s",  29792),
+    SLH_DSA_SHAKE_256S("SLH-DSA-SHAKE-256s", 29792),
+    SLH_DSA_SHA2_256F ("SLH-DSA-SHA2-256f",  49856),
+    SLH_DSA_SHAKE_256F("SLH-DSA-SHAKE-256f", 49856);
+
+    private final String displayName;
+    private final int    signatureBytes;
+
+    SignatureScheme(String displayName, int signatureBytes) {
+        this.displayName    = displayName;
+        this.signatureBytes = signatureBytes;
+    }
+
+    public String getDisplayName()    { return displayName; }
+    public int    getSignatureBytes() { return signatureBytes; }
+
+    /**
+     * Esquema a partir do par enviado pelo cliente: {@code algorithm} pode
+     * ser o nome completo ("ML-DSA-65") ou só a família ("ml-dsa"), com o
+     * nível em {@code parameters} ("ml-dsa-44"). O nível só vale se for da
+     * família informada.
+     */
+    public static Optional<SignatureScheme> resolve(String algorithm, String parameters) {
+        Optional<SignatureScheme> byAlgorithm = lookup(algorithm);
+        if (byAlgorithm.isPresent()) return byAlgorithm;
+
+        Optional<SignatureScheme> byParameters = lookup(parameters);
+        if (byParameters.isEmpty() || algorithm == null || algorithm.isBlank()) return byParameters;
+
+        String family = algorithm.trim().replace('-', '_').toUpperCase(Locale.ROOT) + "_";
+        return byParameters.filter(s -> s.name().startsWith(family));
+    }
+
+    /**
+     * Aceita o nome oficial ("ML-DSA-65", "SLH-DSA-SHA2-128s") ou o da
+     * constante ("ML_DSA_65"), sem diferenciar maiúsculas.
+     */
+    public static Optional<SignatureScheme> lookup(String name) {
+        if (name == null || name.isBlank()) return Optional.empty();
+        String normalized = name.trim().replace('-', '_').toUpperCase(Locale.ROOT);
+        for (SignatureScheme scheme : values()) {
+            if (scheme.name().equals(normalized)) return Optional.of(scheme);
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,171 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.SignatureInfo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache LRU, limitado por tamanho estimado, do resultado de
+ * verificarAssinaturas. A chave é a identidade do arquivo — caminho,
+ * tamanho, mtime e uma impressão digital do conteúdo (início e fim do
+ * arquivo, onde ficam a última revisão incremental e o trailer).
+ * A mesma identidade gera o ETag usado no GET condicional de /verificar.
+ *
+ * SignatureInfo é mutável: o cache guarda cópias próprias e entrega cópias
+ * novas a cada chamada, para que um chamador não altere o resultado visto
+ * pelos próximos.
+ */
+@Component
+public class VerificationCache {
+
+    private static final int FINGERPRINT_HEAD = 4 * 1024;
+    private static final int FINGERPRINT_TAIL = 64 * 1024;
+
+    /** Custo fixo estimado por entrada e por SignatureInfo (objetos, arrays, datas). */
+    private static final long ENTRY_OVERHEAD     = 256;
+    private static final long SIGNATURE_OVERHEAD = 512;
+
+    private final boolean enabled;
+    private final long    maxBytes;
+
+    private final LinkedHashMap<FileIdentity, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long currentBytes;
+
+    private final AtomicLong hits      = new AtomicLong();
+    private final AtomicLong misses    = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VerificationCache(@Value("${pdf.verify.cache.enabled:true}") boolean enabled,
+                             @Value("${pdf.verify.cache.max-bytes:67108864}") long maxBytes) {
+        this.enabled  = enabled;
+        this.maxBytes = maxBytes;
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        List<SignatureInfo> load() throws Exception;
+    }
+
+    // =========================
+    // IDENTIDADE DO ARQUIVO
+    // =========================
+
+    /**
+     * Identidade de um arquivo em disco. Dois arquivos com a mesma
+     * identidade são tratados como o mesmo conteúdo.
+     */
+    public record FileIdentity(String path, long size, long modifiedNanos, String fingerprint) {
+
+        /** ETag forte derivado da identidade completa. */
+        public String etag() {
+            return "\"" + fingerprint.substring(0, 32) + "\"";
+        }
+    }
+
+    public FileIdentity identify(Path pdfPath) throws IOException {
+        Path path = pdfPath.toAbsolutePath().normalize();
+        if (!Files.isRegularFile(path))
+            throw new FileNotFoundException("PDF não encontrado: " + pdfPath);
+
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long size  = attrs.size();
+        long mtime = attrs.lastModifiedTime().to(java.util.concurrent.TimeUnit.NANOSECONDS);
+
+        MessageDigest md = ByteRangeDigest.newDigest();
+        md.update((path + "|" + size + "|" + mtime + "|" + attrs.fileKey())
+                .getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+            long head = Math.min(FINGERPRINT_HEAD, size);
+            ByteRangeDigest.update(md, channel, 0, head, buffer);
+            long tailStart = Math.max(head, size - FINGERPRINT_TAIL);
+            ByteRangeDigest.update(md, channel, tailStart, size - tailStart, buffer);
+        }
+
+        return new FileIdentity(path.toString(), size, mtime, HexFormat.of().formatHex(md.digest()));
+    }
+
+    // =========================
+    // CACHE
+    // =========================
+
+    public List<SignatureInfo> getOrCompute(FileIdentity identity, Loader loader) throws Exception {
+        if (!enabled) return loader.load();
+
+        synchronized (this) {
+            Entry entry = entries.get(identity);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return copyOf(entry.signatures);
+            }
+        }
+
+        misses.incrementAndGet();
+        List<SignatureInfo> signatures = loader.load();
+        put(identity, copyOf(signatures));
+        return signatures;
+    }
+
+    private static List<SignatureInfo> copyOf(List<SignatureInfo> signatures) {
+        return signatures.stream().map(SignatureInfo::copy).toList();
+    }
+
+    private synchronized void put(FileIdentity identity, List<SignatureInfo> signatures) {
+        long weight = weigh(identity, signatures);
+        if (weight > maxBytes) return; // nunca caberia — não desaloja o resto
+
+        Entry previous = entries.put(identity, new Entry(signatures, weight));
+        if (previous != null) currentBytes -= previous.weight;
+        currentBytes += weight;
+
+        Iterator<Map.Entry<FileIdentity, Entry>> it = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && it.hasNext()) {
+            Map.Entry<FileIdentity, Entry> eldest = it.next();
+            currentBytes -= eldest.getValue().weight;
+            it.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), currentBytes, maxBytes);
+    }
+
+    public record Stats(long hits, long misses, long evictions, int entries, long bytes, long maxBytes) {}
+
+    private static long weigh(FileIdentity identity, List<SignatureInfo> signatures) {
+        long bytes = ENTRY_OVERHEAD + 2L * (identity.path().length() + identity.fingerprint().length());
+        for (SignatureInfo s : signatures) {
+            bytes += SIGNATURE_OVERHEAD
+                    + 2L * (len(s.getName()) + len(s.getReason()) + len(s.getLocation())
+                    + len(s.getFilter()) + len(s.getSubFilter()) + len(s.getSignatureBase64())
+                    + len(s.getByteRangeHashBase64()) + len(s.getToBeSignedBase64())
+                    // chave registrada é compartilhada com o PublicKeyRegistry
+                    + (s.getPublicKeyFingerprint() != null ? 0 : len(s.getPublicKeyBase64())));
+        }
+        return bytes;
+    }
+
+    private static int len(String s) { return s == null ? 0 : s.length(); }
+
+    private record Entry(List<SignatureInfo> signatures, long weight) {}
+}
@@ -0,0 +1,120 @@
+package com.pdfController.api.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeLocatorTest {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_ENTRY  = 128;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void findsEntryStraddlingChunkBoundaries() throws IOException {
+        int size = 3 * CHUNK_SIZE + 1000;
+        // 1º bloco começa em size - 64 KB; o 2º termina MAX_ENTRY bytes depois do início do 1º
+        int firstBoundary  = size - CHUNK_SIZE;
+        int secondBoundary = firstBoundary + MAX_ENTRY - CHUNK_SIZE;
+
+        for (int boundary : new int[]{firstBoundary, secondBoundary}) {
+            for (int entryAt = boundary - MAX_ENTRY - 16; entryAt <= boundary + 16; entryAt++) {
+                Fixture pdf = pdf(size, entryAt, " ");
+                ByteRangeLocator.Location location = locateOnDisk(pdf.bytes);
+
+                assertNotNull(location, "entrada em " + entryAt);
+                assertArrayEquals(pdf.byteRange, location.byteRange(), "entrada em " + entryAt);
+                assertEquals(entryAt, location.markerOffset());
+            }
+        }
+    }
+
+    @Test
+    void acceptsFormFeedAndNulAsWhitespace() throws IOException {
+        for (String separator : new String[]{"\f", "\0", "\r\n", "\t\0\f "}) {
+            Fixture pdf = pdf(4096, 1000, separator);
+
+            ByteRangeLocator.Location inMemory = ByteRangeLocator.locateLast(pdf.bytes);
+            assertNotNull(inMemory, "separador " + Arrays.toString(separator.getBytes(StandardCharsets.US_ASCII)));
+            assertArrayEquals(pdf.byteRange, inMemory.byteRange());
+            assertArrayEquals(pdf.byteRange, locateOnDisk(pdf.bytes).byteRange());
+        }
+    }
+
+    @Test
+    void returnsLastOfSeveralEntries() throws IOException {
+        Fixture first = pdf(8192, 500, " ");
+        Fixture last  = pdf(8192, 5000, " ");
+        byte[] both = first.bytes.clone();
+        System.arraycopy(last.bytes, 5000, both, 5000, 200);
+
+        assertArrayEquals(last.byteRange, ByteRangeLocator.locateLast(both).byteRange());
+        assertArrayEquals(last.byteRange, locateOnDisk(both).byteRange());
+    }
+
+    @Test
+    void ignoresEntryWhoseWindowIsNotHexString() throws IOException {
+        Fixture pdf = pdf(4096, 1000, " ");
+        pdf.bytes[pdf.byteRange[1]] = '(';
+
+        assertNull(ByteRangeLocator.locateLast(pdf.bytes));
+        assertNull(locateOnDisk(pdf.bytes));
+    }
+
+    // =========================
+    // FIXTURES
+    // =========================
+
+    private record Fixture(byte[] bytes, int[] byteRange) {}
+
+    /**
+     * Arquivo de {@code size} bytes com "/ByteRange [0 a b c] /Contents <00…>"
+     * em {@code entryAt}; números com 10 dígitos para a entrada ter tamanho fixo.
+     */
+    private static Fixture pdf(int size, int entryAt, String separator) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) 'x');
+        put(bytes, size - 6, "%%EOF\n");
+
+        String contentsKey = " /Contents ";
+        int entryLength = ("/ByteRange" + separator + "[" + separator).length()
+                + 4 * 10 + 3 * separator.length() + separator.length() + 1;
+        int a = entryAt + entryLength + contentsKey.length();
+        int b = a + 66;
+        int[] byteRange = {0, a, b, size - b};
+
+        String entry = "/ByteRange" + separator + "[" + separator
+                + String.format("%010d", byteRange[0]) + separator
+                + String.format("%010d", byteRange[1]) + separator
+                + String.format("%010d", byteRange[2]) + separator
+                + String.format("%010d", byteRange[3]) + separator + "]";
+        assertEquals(entryLength, entry.length());
+
+        put(bytes, entryAt, entry + contentsKey + "<" + "0".repeat(64) + ">");
+        return new Fixture(bytes, byteRange);
+    }
+
+    private static void put(byte[] target, int offset, String text) {
+        byte[] raw = text.getBytes(StandardCharsets.ISO_8859_1);
+        System.arraycopy(raw, 0, target, offset, raw.length);
+    }
+
+    private ByteRangeLocator.Location locateOnDisk(byte[] bytes) throws IOException {
+        Path file = dir.resolve("doc.pdf");
+        Files.write(file, bytes);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ByteRangeLocator.locateLast(channel);
+        }
+    }
+}
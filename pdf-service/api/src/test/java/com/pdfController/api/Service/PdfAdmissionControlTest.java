@@ -0,0 +1,118 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfAdmissionControl.OverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfAdmissionControlTest {
+
+    private PdfAdmissionControl admission;
+    private ExecutorService     callers;
+
+    @AfterEach
+    void tearDown() {
+        if (callers != null) callers.shutdownNow();
+        if (admission != null) admission.shutdown();
+    }
+
+    @Test
+    void waitingCallerProceedsWhenMemoryIsReleased() throws Exception {
+        admission = admission(1000, Duration.ofSeconds(10), 1, 1);
+        callers   = Executors.newSingleThreadExecutor();
+
+        PdfAdmissionControl.Permit held = admission.admit(800);
+        Future<String> waiting = callers.submit(() -> admission.executeWaiting(800, () -> "ok"));
+
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+        held.close();
+
+        assertEquals("ok", waiting.get(5, TimeUnit.SECONDS));
+        assertEquals(0, admission.getBytesInFlight());
+    }
+
+    @Test
+    void waitingCallerGivesUpAfterMaxWait() throws Exception {
+        admission = admission(1000, Duration.ofMillis(100), 1, 1);
+
+        try (PdfAdmissionControl.Permit held = admission.admit(800)) {
+            assertThrows(OverloadedException.class, () -> admission.executeWaiting(800, () -> "ok"));
+        }
+        assertEquals(0, admission.getBytesInFlight());
+    }
+
+    @Test
+    void cpuSlotsBoundRunningPlusQueued() throws Exception {
+        admission = admission(1_000_000, Duration.ofSeconds(10), 1, 1);
+        callers   = Executors.newFixedThreadPool(3);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Callable<String> blocked = () -> { release.await(); return "ok"; };
+        Future<String> running = callers.submit(() -> admission.runCpu(blocked));
+        Future<String> queued  = callers.submit(() -> admission.runCpu(blocked));
+        awaitQueued(1);
+
+        // 1 thread + 1 na fila: a terceira é recusada na hora...
+        assertThrows(OverloadedException.class, () -> admission.runCpu(() -> "ok"));
+
+        // ...e a que espera entra assim que uma vaga volta
+        Future<String> waiting = callers.submit(() -> admission.executeWaiting(1, () -> "ok"));
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+
+        assertEquals("ok", running.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", queued.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", waiting.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void cancelledQueuedTaskReturnsItsSlot() throws Exception {
+        admission = admission(1_000_000, Duration.ofSeconds(10), 1, 1);
+        callers   = Executors.newFixedThreadPool(2);
+
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> running = callers.submit(() -> admission.runCpu(() -> { release.await(); return "ok"; }));
+        awaitActive();
+        Future<String> queued = callers.submit(() -> admission.runCpu(() -> "queued"));
+        awaitQueued(1);
+
+        queued.cancel(true);    // interrompe o chamador, que cancela a tarefa na fila
+        assertTrue(waitFor(() -> admission.availableCpuSlots() == 1));
+
+        release.countDown();
+        assertEquals("ok", running.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", admission.runCpu(() -> "ok"));
+    }
+
+    // =========================
+    // FIXTURES
+    // =========================
+
+    private static PdfAdmissionControl admission(long maxBytes, Duration maxWait, int threads, int queue) {
+        return new PdfAdmissionControl(true, DataSize.ofBytes(maxBytes), 1.0, Duration.ofSeconds(1),
+                maxWait, threads, queue, new SimpleMeterRegistry());
+    }
+
+    private void awaitQueued(int expected) throws InterruptedException {
+        assertTrue(waitFor(() -> admission.cpuQueueSize() == expected), "fila não chegou a " + expected);
+    }
+
+    private void awaitActive() throws InterruptedException {
+        assertTrue(waitFor(() -> admission.availableCpuSlots() == 1), "tarefa não começou");
+    }
+
+    private static boolean waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) return true;
+            Thread.sleep(10);
+        }
+        return false;
+    }
+}
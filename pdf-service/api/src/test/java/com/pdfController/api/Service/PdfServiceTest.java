@@ -0,0 +1,44 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfServiceTest {
+
+    private static final byte[] SIGNATURE = {(byte) 0xde, (byte) 0xad, 0x00, 0x0f};
+
+    @Test
+    void padsShorterSignatureWithZeros() throws Exception {
+        byte[] window = PdfService.buildContentsWindow(SIGNATURE, 16);
+
+        assertEquals("<dead000f000000>", ascii(window));
+    }
+
+    @Test
+    void fillsWindowExactlyWhenSignatureMatchesReservation() throws Exception {
+        byte[] window = PdfService.buildContentsWindow(SIGNATURE, 2 + 2 * SIGNATURE.length);
+
+        assertEquals("<dead000f>", ascii(window));
+    }
+
+    @Test
+    void rejectsSignatureLongerThanReservation() {
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> PdfService.buildContentsWindow(SIGNATURE, 1 + 2 * SIGNATURE.length));
+
+        assertTrue(e.getMessage().contains("Assinatura muito grande"));
+    }
+
+    @Test
+    void emptySignatureLeavesOnlyPadding() throws Exception {
+        assertEquals("<0000>", ascii(PdfService.buildContentsWindow(new byte[0], 6)));
+    }
+
+    private static String ascii(byte[] bytes) {
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
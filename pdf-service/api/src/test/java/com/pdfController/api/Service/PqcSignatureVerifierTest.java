@@ -0,0 +1,158 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.SignatureInfo;
+import org.bouncycastle.crypto.AsymmetricCipherKeyPair;
+import org.bouncycastle.pqc.crypto.mldsa.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PqcSignatureVerifierTest {
+
+    /** Chaves de exemplo do cliente, no mesmo formato PEM que ele grava no PDF. */
+    private static final Path CLIENT_KEYS =
+            Paths.get("../../client-server/PQC.INFRAESTRUCTURE/PostQuantumSigner/Service/Native/win-x64/keys");
+
+    @TempDir
+    Path keysDir;
+
+    private PqcSignatureVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        PublicKeyRegistry registry = new PublicKeyRegistry(keysDir.toString(), "inline", 100);
+        registry.init();
+        verifier = new PqcSignatureVerifier(2, 500, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        verifier.shutdown();
+    }
+
+    // =========================
+    // DECODIFICAÇÃO DA CHAVE
+    // =========================
+
+    @Test
+    void decodesClientPemKeys() throws Exception {
+        assertPemKey("ML-DSA-44.pub", MLDSAParameters.ml_dsa_44);
+        assertPemKey("ML-DSA-65.pub", MLDSAParameters.ml_dsa_65);
+        assertPemKey("ML-DSA-87.pub", MLDSAParameters.ml_dsa_87);
+    }
+
+    private void assertPemKey(String file, MLDSAParameters expected) throws Exception {
+        byte[] pem = Files.readAllBytes(CLIENT_KEYS.resolve(file));
+        MLDSAPublicKeyParameters key = PqcSignatureVerifier.decodePublicKey(pem);
+
+        assertNotNull(key, file);
+        assertEquals(expected, key.getParameters(), file);
+        assertArrayEquals(PqcSignatureVerifier.unwrapPem(pem), key.getEncoded(), file);
+    }
+
+    @Test
+    void decodesRawAndPemWithCrlfAndBom() {
+        MLDSAPublicKeyParameters pub = (MLDSAPublicKeyParameters) keyPair(MLDSAParameters.ml_dsa_65).getPublic();
+        String pem = pem("ML-DSA-65", pub.getEncoded()).replace("\n", "\r\n");
+        byte[] withBom = ("\uFEFF" + pem).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(pub.getEncoded(), PqcSignatureVerifier.decodePublicKey(pub.getEncoded()).getEncoded());
+        assertArrayEquals(pub.getEncoded(), PqcSignatureVerifier.decodePublicKey(withBom).getEncoded());
+    }
+
+    @Test
+    void rejectsMalformedPem() {
+        byte[] truncated = "-----BEGIN ML-DSA-44 PUBLIC KEY-----\nqsm7e0D5".getBytes(StandardCharsets.US_ASCII);
+        byte[] notBase64 = "-----BEGIN ML-DSA-44 PUBLIC KEY-----\n!!!\n-----END ML-DSA-44 PUBLIC KEY-----\n"
+                .getBytes(StandardCharsets.US_ASCII);
+
+        assertNull(PqcSignatureVerifier.decodePublicKey(truncated));
+        assertNull(PqcSignatureVerifier.decodePublicKey(notBase64));
+        assertNull(PqcSignatureVerifier.decodePublicKey(new byte[100]));
+    }
+
+    // =========================
+    // ASSINAR E VERIFICAR
+    // =========================
+
+    @Test
+    void verifiesRoundTripWithPemKeyAndPaddedContents() throws Exception {
+        AsymmetricCipherKeyPair pair = keyPair(MLDSAParameters.ml_dsa_44);
+        byte[] toBeSigned = random(32);
+        SignatureInfo info = signed(pair, "ML-DSA-44", toBeSigned, 64);
+
+        var verdict = verifier.verify("doc.pdf", path -> List.of(info));
+
+        assertTrue(verdict.valid(), String.valueOf(verdict));
+        assertEquals("ML-DSA-44", verdict.signatures().get(0).algorithm());
+    }
+
+    @Test
+    void rejectsTamperedMessageAndTrailingData() throws Exception {
+        AsymmetricCipherKeyPair pair = keyPair(MLDSAParameters.ml_dsa_87);
+
+        SignatureInfo tampered = signed(pair, "ML-DSA-87", random(32), 0);
+        tampered.setToBeSignedBase64(Base64.getEncoder().encodeToString(random(32)));
+
+        SignatureInfo trailing = signed(pair, "ML-DSA-87", random(32), 16);
+        byte[] contents = Base64.getDecoder().decode(trailing.getSignatureBase64());
+        contents[contents.length - 1] = 1;
+        trailing.setSignatureBase64(Base64.getEncoder().encodeToString(contents));
+
+        var verdict = verifier.verify("doc.pdf", path -> List.of(tampered, trailing));
+
+        assertFalse(verdict.valid());
+        assertEquals("Assinatura não confere", verdict.signatures().get(0).error());
+        assertEquals("Dados além da assinatura no /Contents", verdict.signatures().get(1).error());
+    }
+
+    // =========================
+    // AUXILIARES
+    // =========================
+
+    private static SignatureInfo signed(AsymmetricCipherKeyPair pair, String label,
+                                        byte[] toBeSigned, int padding) throws Exception {
+        MLDSASigner signer = new MLDSASigner();
+        signer.init(true, pair.getPrivate());
+        signer.update(toBeSigned, 0, toBeSigned.length);
+        byte[] signature = signer.generateSignature();
+
+        byte[] pubKey = ((MLDSAPublicKeyParameters) pair.getPublic()).getEncoded();
+        SignatureInfo info = new SignatureInfo();
+        info.setIndex(1);
+        info.setToBeSignedBase64(Base64.getEncoder().encodeToString(toBeSigned));
+        info.setSignatureBase64(Base64.getEncoder().encodeToString(Arrays.copyOf(signature, signature.length + padding)));
+        info.setPublicKeyBase64(Base64.getEncoder().encodeToString(
+                pem(label, pubKey).getBytes(StandardCharsets.US_ASCII)));
+        return info;
+    }
+
+    private static AsymmetricCipherKeyPair keyPair(MLDSAParameters parameters) {
+        MLDSAKeyPairGenerator generator = new MLDSAKeyPairGenerator();
+        generator.init(new MLDSAKeyGenerationParameters(new SecureRandom(), parameters));
+        return generator.generateKeyPair();
+    }
+
+    private static String pem(String label, byte[] key) {
+        String body = Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(key);
+        return "-----BEGIN " + label + " PUBLIC KEY-----\n" + body + "\n-----END " + label + " PUBLIC KEY-----\n";
+    }
+
+    private static byte[] random(int length) {
+        byte[] bytes = new byte[length];
+        new SecureRandom().nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,150 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PreparedSessionStore.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PreparedSessionStoreTest {
+
+    private static final Duration TTL = Duration.ofHours(1);
+
+    @TempDir
+    Path dir;
+
+    private Path sessions;
+    private Path prepared;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        sessions = dir.resolve("sessions");
+        prepared = dir.resolve("doc_prepared.pdf");
+        Files.write(prepared, new byte[1000]);
+    }
+
+    @Test
+    void roundTripsThroughDiskAcrossRestart() throws IOException {
+        PreparedSessionStore store = open();
+        Session saved = session(System.currentTimeMillis(), "sha256:abc");
+        store.save(saved);
+
+        assertSessionEquals(saved, store.find(prepared.toString()).orElseThrow());
+
+        PreparedSessionStore restarted = open();
+        assertEquals(1, restarted.size());
+        assertSessionEquals(saved, restarted.find(prepared.toString()).orElseThrow());
+    }
+
+    @Test
+    void removeDeletesSessionFromDisk() throws IOException {
+        PreparedSessionStore store = open();
+        store.save(session(System.currentTimeMillis(), null));
+
+        store.remove(prepared.toString());
+
+        assertTrue(store.find(prepared.toString()).isEmpty());
+        assertTrue(open().find(prepared.toString()).isEmpty());
+    }
+
+    @Test
+    void expiredSessionIsDroppedWithUnchangedPreparedPdf() throws IOException {
+        PreparedSessionStore store = open();
+        store.save(session(System.currentTimeMillis() - TTL.toMillis() - 1000, null));
+
+        assertTrue(store.find(prepared.toString()).isEmpty());
+        assertFalse(Files.exists(prepared));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expiredSessionKeepsPreparedPdfThatChanged() throws IOException {
+        PreparedSessionStore store = open();
+        store.save(session(System.currentTimeMillis() - TTL.toMillis() - 1000, null));
+        Files.write(prepared, new byte[2000]);
+
+        store.cleanup();
+
+        assertEquals(0, store.size());
+        assertTrue(Files.exists(prepared));
+    }
+
+    @Test
+    void discardsUnreadableSessionFiles() throws IOException {
+        Files.createDirectories(sessions);
+        Path broken = sessions.resolve("broken.session");
+        Files.write(broken, new byte[]{1, 0});
+
+        assertEquals(0, open().size());
+        assertFalse(Files.exists(broken));
+    }
+
+    @Test
+    void discardsSessionFilesWithUnknownVersion() throws IOException {
+        PreparedSessionStore store = open();
+        store.save(session(System.currentTimeMillis(), "sha256:abc"));
+        Path file;
+        try (var files = Files.list(sessions)) {
+            file = files.findFirst().orElseThrow();
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[0] = 9;
+        Files.write(file, bytes);
+
+        assertEquals(0, open().size());
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void detectsLegacySidecarsAndDropsThemOnSave() throws IOException {
+        PreparedSessionStore store = open();
+        Path cache = Path.of(prepared + ".cache");
+        Path algo  = Path.of(prepared + ".algo");
+
+        Files.write(cache, new byte[]{1});
+        assertFalse(store.hasLegacySidecars(prepared.toString()));
+
+        Files.write(algo, new byte[]{1});
+        assertTrue(store.hasLegacySidecars(prepared.toString()));
+
+        store.save(session(System.currentTimeMillis(), null));
+        assertFalse(Files.exists(cache));
+        assertFalse(Files.exists(algo));
+        assertFalse(store.hasLegacySidecars(prepared.toString()));
+    }
+
+    // =========================
+    // FIXTURES
+    // =========================
+
+    private PreparedSessionStore open() throws IOException {
+        PreparedSessionStore store = new PreparedSessionStore(sessions.toString(), TTL, 100, true);
+        store.load();
+        return store;
+    }
+
+    private Session session(long createdAt, String fingerprint) throws IOException {
+        return new Session(PreparedSessionStore.normalize(prepared.toString()), Files.size(prepared),
+                new int[]{0, 400, 500, 500}, "ML_DSA_65", "Fulano", "Aprovação", "Brasília",
+                2, createdAt, fingerprint);
+    }
+
+    private static void assertSessionEquals(Session expected, Session actual) {
+        assertEquals(expected.preparedPath(), actual.preparedPath());
+        assertEquals(expected.preparedSize(), actual.preparedSize());
+        assertArrayEquals(expected.byteRange(), actual.byteRange());
+        assertEquals(expected.algorithm(), actual.algorithm());
+        assertEquals(expected.signerName(), actual.signerName());
+        assertEquals(expected.reason(), actual.reason());
+        assertEquals(expected.location(), actual.location());
+        assertEquals(expected.signatureIndex(), actual.signatureIndex());
+        assertEquals(expected.createdAtMillis(), actual.createdAtMillis());
+        assertEquals(expected.fingerprint(), actual.fingerprint());
+    }
+}
@@ -0,0 +1,119 @@
+package com.pdfController.api.Service;
+
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAKeyGenerationParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAKeyPairGenerator;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAParameters;
+import org.bouncycastle.pqc.crypto.mldsa.MLDSAPublicKeyParameters;
+import org.bouncycastle.pqc.crypto.util.SubjectPublicKeyInfoFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicKeyRegistryTest {
+
+    private static final Path CLIENT_KEYS =
+            Paths.get("../../client-server/PQC.INFRAESTRUCTURE/PostQuantumSigner/Service/Native/win-x64/keys");
+
+    @TempDir
+    Path keysDir;
+
+    private PublicKeyRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = newRegistry();
+    }
+
+    private PublicKeyRegistry newRegistry() throws Exception {
+        PublicKeyRegistry r = new PublicKeyRegistry(keysDir.toString(), "fingerprint", 100);
+        r.init();
+        return r;
+    }
+
+    @Test
+    void sameKeyHasSameFingerprintInEveryEncoding() throws Exception {
+        MLDSAKeyPairGenerator generator = new MLDSAKeyPairGenerator();
+        generator.init(new MLDSAKeyGenerationParameters(new SecureRandom(), MLDSAParameters.ml_dsa_65));
+        MLDSAPublicKeyParameters pub = (MLDSAPublicKeyParameters) generator.generateKeyPair().getPublic();
+
+        byte[] raw  = pub.getEncoded();
+        byte[] spki = SubjectPublicKeyInfoFactory.createSubjectPublicKeyInfo(pub).getEncoded();
+        String pem  = "-----BEGIN ML-DSA-65 PUBLIC KEY-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(raw)
+                + "\n-----END ML-DSA-65 PUBLIC KEY-----\n";
+
+        var fromRaw  = registry.intern(base64(raw));
+        var fromSpki = registry.intern(base64(spki));
+        var fromPem  = registry.intern(base64(pem.getBytes(StandardCharsets.US_ASCII)));
+
+        assertEquals(fromRaw.fingerprint(), fromSpki.fingerprint());
+        assertEquals(fromRaw.fingerprint(), fromPem.fingerprint());
+        assertSame(fromRaw, fromPem);
+        assertEquals("ML-DSA-65", fromPem.algorithm());
+    }
+
+    @Test
+    void clientPemKeysCanonicalizeToRawKey() throws Exception {
+        byte[] pem = Files.readAllBytes(CLIENT_KEYS.resolve("ML-DSA-44.pub"));
+
+        var key = registry.register(base64(pem));
+
+        assertEquals("ML-DSA-44", key.algorithm());
+        assertEquals(1312, Base64.getDecoder().decode(key.publicKeyBase64()).length);
+        assertEquals(key.fingerprint(), registry.intern(base64(Base64.getDecoder().decode(key.publicKeyBase64()))).fingerprint());
+    }
+
+    @Test
+    void registeredKeyResolvesFromDiskInNewInstance() throws Exception {
+        byte[] pem = Files.readAllBytes(CLIENT_KEYS.resolve("ML-DSA-87.pub"));
+        String fingerprint = registry.register(base64(pem)).fingerprint();
+
+        var reloaded = newRegistry().resolve(fingerprint).orElseThrow();
+
+        assertEquals(fingerprint, reloaded.fingerprint());
+        assertEquals("ML-DSA-87", reloaded.algorithm());
+        assertTrue(newRegistry().resolve(fingerprint.substring(PublicKeyRegistry.FINGERPRINT_PREFIX.length())).isPresent());
+    }
+
+    @Test
+    void keepsOnlyMaxInternedKeysAndReloadsEvictedFromDisk() throws Exception {
+        PublicKeyRegistry small = new PublicKeyRegistry(keysDir.toString(), "fingerprint", 2);
+        small.init();
+
+        var first = small.register(base64(newKey().getEncoded()));
+        small.register(base64(newKey().getEncoded()));
+        small.intern(base64(newKey().getEncoded()));
+
+        // A primeira foi desalojada do LRU, mas continua registrada em disco
+        var reloaded = small.resolve(first.fingerprint()).orElseThrow();
+        assertEquals(first.fingerprint(), reloaded.fingerprint());
+        assertNotSame(first, reloaded);
+    }
+
+    private static MLDSAPublicKeyParameters newKey() {
+        MLDSAKeyPairGenerator generator = new MLDSAKeyPairGenerator();
+        generator.init(new MLDSAKeyGenerationParameters(new SecureRandom(), MLDSAParameters.ml_dsa_44));
+        return (MLDSAPublicKeyParameters) generator.generateKeyPair().getPublic();
+    }
+
+    @Test
+    void rejectsMalformedPem() {
+        String truncated = base64("-----BEGIN ML-DSA-44 PUBLIC KEY-----\nqsm7".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(PdfService.ValidationException.class, () -> registry.intern(truncated));
+        assertThrows(PdfService.ValidationException.class, () -> registry.intern("não é base64"));
+    }
+
+    private static String base64(byte[] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
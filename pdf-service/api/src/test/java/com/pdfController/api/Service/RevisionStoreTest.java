@@ -0,0 +1,118 @@
+package com.pdfController.api.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevisionStoreTest {
+
+    private static final String BASE  = "%PDF-1.7\n1 0 obj\n<<>>\nendobj\ntrailer\n<<>>\n%%EOF\n";
+    private static final String CHILD = BASE + "2 0 obj\n<</Sig 1>>\nendobj\ntrailer\n<<>>\n%%EOF\n";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesChildAsDeltaAndRebuildsIt() throws IOException {
+        RevisionStore store = open(Duration.ZERO);
+        String baseId  = store.store(write("doc.pdf", BASE));
+        String childId = store.store(write("doc_signed.pdf", CHILD));
+
+        RevisionStore.Revision child = store.get(childId).orElseThrow();
+        assertEquals(baseId, child.parent());
+        assertEquals(BASE.length(), child.offset());
+        assertEquals(CHILD, read(store, childId));
+    }
+
+    @Test
+    void preparedCopyIsRemovedAfterRetention() throws IOException {
+        RevisionStore store = open(Duration.ZERO);
+        Path prepared = write("doc_prepared.pdf", CHILD);
+
+        store.retire(prepared);
+        store.cleanup();
+
+        assertFalse(Files.exists(prepared));
+    }
+
+    @Test
+    void signedCopyStaysUntilAChildRevisionIsStored() throws IOException {
+        RevisionStore store = open(Duration.ZERO);
+        Path signed = write("doc_signed.pdf", BASE);
+        store.store(signed);
+        store.retireWhenSuperseded(signed);
+
+        store.cleanup();
+        assertTrue(Files.exists(signed), "revisão mais nova do documento deve ficar em disco");
+
+        Path next = write("doc_signed_signed.pdf", CHILD);
+        store.store(next);
+        store.retireWhenSuperseded(next);
+        store.cleanup();
+
+        assertFalse(Files.exists(signed));
+        assertTrue(Files.exists(next));
+    }
+
+    @Test
+    void pendingRemovalsSurviveRestart() throws IOException {
+        RevisionStore first = open(Duration.ZERO);
+        Path prepared = write("doc_prepared.pdf", CHILD);
+        Path signed   = write("doc_signed.pdf", BASE);
+        first.retire(prepared);
+        first.store(signed);
+        first.retireWhenSuperseded(signed);
+
+        RevisionStore restarted = open(Duration.ZERO);
+        restarted.cleanup();
+        assertFalse(Files.exists(prepared));
+        assertTrue(Files.exists(signed));
+
+        restarted.store(write("doc_signed_signed.pdf", CHILD));
+        restarted.cleanup();
+        assertFalse(Files.exists(signed));
+    }
+
+    @Test
+    void keepsCopyRewrittenAfterRetirement() throws IOException {
+        RevisionStore store = open(Duration.ZERO);
+        Path prepared = write("doc_prepared.pdf", BASE);
+        store.retire(prepared);
+
+        // Um novo /preparar grava outro conteúdo no mesmo caminho
+        Files.writeString(prepared, CHILD, StandardCharsets.ISO_8859_1);
+        store.cleanup();
+
+        assertTrue(Files.exists(prepared));
+    }
+
+    // =========================
+    // FIXTURES
+    // =========================
+
+    private RevisionStore open(Duration retention) throws IOException {
+        RevisionStore store = new RevisionStore(true, dir.resolve("store").toString(), 100, 100, retention);
+        store.init();
+        return store;
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = dir.resolve(name);
+        Files.writeString(file, content, StandardCharsets.ISO_8859_1);
+        return file;
+    }
+
+    private static String read(RevisionStore store, String id) throws IOException {
+        try (InputStream in = store.open(id)) {
+            return new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+        }
+    }
+}
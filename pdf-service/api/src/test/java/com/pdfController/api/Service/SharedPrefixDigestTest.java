@@ -0,0 +1,116 @@
+package com.pdfController.api.Service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedPrefixDigestTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesNaiveDigestForOneToTenSignatures() throws Exception {
+        Random random = new Random(42);
+        for (int signatures = 1; signatures <= 10; signatures++) {
+            // Revisões maiores que o buffer de 64 KB, para os cortes caírem no meio dos blocos
+            byte[] pdf = new byte[signatures * 150_000 + 1234];
+            random.nextBytes(pdf);
+            List<int[]> byteRanges = incrementalByteRanges(pdf.length, signatures, random);
+
+            assertMatchesNaive(pdf, byteRanges);
+
+            List<int[]> shuffled = new ArrayList<>(byteRanges);
+            Collections.shuffle(shuffled, random);
+            assertMatchesNaive(pdf, shuffled);
+        }
+    }
+
+    @Test
+    void computesRangesNotStartingAtZeroIndependently() throws Exception {
+        byte[] pdf = new byte[200_000];
+        new Random(7).nextBytes(pdf);
+        List<int[]> byteRanges = List.of(
+                new int[]{0, 50_000, 50_100, 60_000},
+                new int[]{10, 90_000, 90_100, 100_000});
+
+        assertMatchesNaive(pdf, byteRanges);
+    }
+
+    @Test
+    void leavesInvalidRangesNull() throws Exception {
+        byte[] pdf = new byte[10_000];
+        new Random(3).nextBytes(pdf);
+        List<int[]> byteRanges = List.of(
+                new int[]{0, 1000, 1100, 8900},
+                new int[]{0, 1000, 1100, 9900},     // passa do fim do arquivo
+                new int[]{0, 1000, 900, 100});      // janela invertida
+
+        byte[][] digests = digestAll(pdf, byteRanges);
+
+        assertArrayEquals(naive(pdf, byteRanges.get(0)), digests[0]);
+        assertNull(digests[1]);
+        assertNull(digests[2]);
+    }
+
+    // =========================
+    // FIXTURES
+    // =========================
+
+    /**
+     * ByteRanges como os de assinaturas incrementais: a assinatura i cobre
+     * [0, a_i) + [b_i, e_i), com janelas e fins crescentes; a última vai até o fim.
+     */
+    private static List<int[]> incrementalByteRanges(int length, int signatures, Random random) {
+        List<int[]> ranges = new ArrayList<>();
+        int revision = length / signatures;
+        for (int i = 1; i <= signatures; i++) {
+            int end    = i == signatures ? length : i * revision;
+            int window = 100 + random.nextInt(5000);
+            int a      = end - window - 1 - random.nextInt(revision / 2);
+            int b      = a + window;
+            ranges.add(new int[]{0, a, b, end - b});
+        }
+        return ranges;
+    }
+
+    private void assertMatchesNaive(byte[] pdf, List<int[]> byteRanges) throws IOException {
+        byte[][] digests = digestAll(pdf, byteRanges);
+        assertEquals(byteRanges.size(), digests.length);
+        for (int i = 0; i < byteRanges.size(); i++)
+            assertArrayEquals(naive(pdf, byteRanges.get(i)), digests[i],
+                    "assinatura " + i + " de " + byteRanges.size());
+    }
+
+    private byte[][] digestAll(byte[] pdf, List<int[]> byteRanges) throws IOException {
+        Path file = dir.resolve("doc.pdf");
+        Files.write(file, pdf);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return SharedPrefixDigest.digestAll(channel, byteRanges);
+        }
+    }
+
+    private static byte[] naive(byte[] pdf, int[] br) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            md.update(pdf, br[0], br[1]);
+            md.update(pdf, br[2], br[3]);
+            return md.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.pdfController.api.Service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SignatureSchemeTest {
+
+    @Test
+    void resolvesFullNameInAlgorithm() {
+        assertEquals(SignatureScheme.ML_DSA_65, SignatureScheme.resolve("ML-DSA-65", null).orElseThrow());
+        assertEquals(SignatureScheme.SLH_DSA_SHA2_128S, SignatureScheme.resolve("slh-dsa-sha2-128s", null).orElseThrow());
+    }
+
+    @Test
+    void resolvesFamilyWithLevelInParameters() {
+        // Forma enviada pelo cliente C#: algorithm="ml-dsa", parameters="ml-dsa-44"
+        assertEquals(SignatureScheme.ML_DSA_44, SignatureScheme.resolve("ml-dsa", "ml-dsa-44").orElseThrow());
+        assertEquals(SignatureScheme.ML_DSA_87, SignatureScheme.resolve(null, "ML-DSA-87").orElseThrow());
+    }
+
+    @Test
+    void rejectsLevelFromAnotherFamily() {
+        assertTrue(SignatureScheme.resolve("slh-dsa", "ml-dsa-44").isEmpty());
+    }
+
+    @Test
+    void unknownNamesResolveToNothing() {
+        assertTrue(SignatureScheme.resolve("ml-dsa", null).isEmpty());
+        assertTrue(SignatureScheme.resolve("rsa", "2048").isEmpty());
+        assertTrue(SignatureScheme.resolve(null, null).isEmpty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.pdfController.api.Service;
+
+import com.pdfController.api.Service.PdfService.SignatureInfo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerificationCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void callersCannotMutateCachedResult() throws Exception {
+        VerificationCache cache = new VerificationCache(true, 1024 * 1024);
+        Path pdf = dir.resolve("doc.pdf");
+        Files.write(pdf, new byte[]{'%', 'P', 'D', 'F'});
+        VerificationCache.FileIdentity identity = cache.identify(pdf);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<SignatureInfo> first = cache.getOrCompute(identity, () -> {
+            loads.incrementAndGet();
+            return List.of(signature());
+        });
+        mutate(first.get(0));
+
+        List<SignatureInfo> second = cache.getOrCompute(identity, () -> fail("deveria vir do cache"));
+        assertUnchanged(second.get(0));
+        mutate(second.get(0));
+
+        assertUnchanged(cache.getOrCompute(identity, () -> fail("deveria vir do cache")).get(0));
+        assertEquals(1, loads.get());
+    }
+
+    private static SignatureInfo signature() {
+        SignatureInfo info = new SignatureInfo();
+        info.setIndex(1);
+        info.setName("Fulano");
+        info.setSignDate(new Date(1_000_000L));
+        info.setByteRange(new int[]{0, 10, 20, 30});
+        info.setByteRangeValid(true);
+        return info;
+    }
+
+    private static void mutate(SignatureInfo info) {
+        info.setName("Outro");
+        info.getSignDate().setTime(0);
+        info.getByteRange()[1] = 99;
+        info.setByteRangeValid(false);
+    }
+
+    private static void assertUnchanged(SignatureInfo info) {
+        assertEquals("Fulano", info.getName());
+        assertEquals(1_000_000L, info.getSignDate().getTime());
+        assertArrayEquals(new int[]{0, 10, 20, 30}, info.getByteRange());
+        assertTrue(info.isByteRangeValid());
+    }
+}